@@ -0,0 +1,129 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.pellse.assembler.benchmark;
+
+import io.github.pellse.assembler.Assembler;
+import io.github.pellse.assembler.Rule;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static io.github.pellse.assembler.AssemblerBuilder.assemblerOf;
+import static io.github.pellse.assembler.Rule.rule;
+import static io.github.pellse.assembler.RuleMapper.oneToMany;
+import static io.github.pellse.assembler.RuleMapper.oneToOne;
+import static io.github.pellse.assembler.RuleMapperSource.call;
+import static io.github.pellse.assembler.benchmark.DataSource.customers;
+import static io.github.pellse.assembler.caching.CacheFactory.cached;
+import static io.github.pellse.assembler.caching.CacheFactory.cachedMany;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static org.openjdk.jmh.annotations.Mode.Throughput;
+import static reactor.core.publisher.Flux.fromIterable;
+
+/**
+ * Measures the end-to-end {@link Assembler#assemble} pipeline ({@code FluxAdapter} + {@code QueryUtils.buildQueryFunction})
+ * for a single batch of top level entities. When {@code caching} is {@code cached}, every rule source is wrapped with
+ * {@code cached()}/{@code cachedMany()} and the cache is warmed by the first invocation, so steady state measures cache hits.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Throughput, AverageTime})
+@OutputTimeUnit(MILLISECONDS)
+public class AssemblerBenchmark {
+
+    static final int DETAILS_PER_CUSTOMER = 3;
+
+    @Param({"1", "3", "6", "11"})
+    int ruleCount;
+
+    @Param({"oneToOne", "oneToMany"})
+    String mapping;
+
+    @Param({"uncached", "cached"})
+    String caching;
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    int batchSize;
+
+    private List<Customer> customers;
+
+    private Assembler<Customer, AssembledCustomer> assembler;
+
+    @Setup
+    public void setup() {
+        customers = customers(batchSize);
+
+        final var dataSource = new DataSource(batchSize, mapping.equals("oneToOne") ? 1 : DETAILS_PER_CUSTOMER);
+        final var rules = IntStream.range(0, ruleCount)
+                .mapToObj(__ -> createRule(dataSource))
+                .toList();
+
+        assembler = createAssembler(rules);
+    }
+
+    @Benchmark
+    public List<AssembledCustomer> assemble() {
+        return assembler.assemble(fromIterable(customers))
+                .collectList()
+                .block();
+    }
+
+    private Rule<Customer, Long, Object> createRule(DataSource dataSource) {
+
+        final boolean isCached = caching.equals("cached");
+
+        return switch (mapping) {
+            case "oneToOne" -> toObjectRule(isCached
+                    ? rule(CustomerDetail::customerId, oneToOne(cached(call(dataSource::query))))
+                    : rule(CustomerDetail::customerId, oneToOne(call(dataSource::query))));
+
+            case "oneToMany" -> toObjectRule(isCached
+                    ? rule(CustomerDetail::customerId, oneToMany(CustomerDetail::id, cachedMany(call(dataSource::query))))
+                    : rule(CustomerDetail::customerId, oneToMany(CustomerDetail::id, call(dataSource::query))));
+
+            default -> throw new IllegalArgumentException("Unknown mapping: " + mapping);
+        };
+    }
+
+    private Assembler<Customer, AssembledCustomer> createAssembler(List<Rule<Customer, Long, Object>> r) {
+
+        final var builder = assemblerOf(AssembledCustomer.class)
+                .withCorrelationIdResolver(Customer::customerId);
+
+        return switch (ruleCount) {
+            case 1 -> builder.withRules(r.get(0),
+                    AssembledCustomer::new).build();
+
+            case 3 -> builder.withRules(r.get(0), r.get(1), r.get(2),
+                    (c, e1, e2, e3) -> new AssembledCustomer(c, e1, e2, e3)).build();
+
+            case 6 -> builder.withRules(r.get(0), r.get(1), r.get(2), r.get(3), r.get(4), r.get(5),
+                    (c, e1, e2, e3, e4, e5, e6) -> new AssembledCustomer(c, e1, e2, e3, e4, e5, e6)).build();
+
+            case 11 -> builder.withRules(r.get(0), r.get(1), r.get(2), r.get(3), r.get(4), r.get(5), r.get(6), r.get(7), r.get(8), r.get(9), r.get(10),
+                    (c, e1, e2, e3, e4, e5, e6, e7, e8, e9, e10, e11) -> new AssembledCustomer(c, e1, e2, e3, e4, e5, e6, e7, e8, e9, e10, e11)).build();
+
+            default -> builder.withRules(List.copyOf(r), AssembledCustomer::new).build();
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Rule<Customer, Long, Object> toObjectRule(Rule<Customer, Long, ?> rule) {
+        return (Rule<Customer, Long, Object>) rule;
+    }
+}
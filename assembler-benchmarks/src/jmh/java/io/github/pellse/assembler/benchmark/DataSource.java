@@ -0,0 +1,64 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.pellse.assembler.benchmark;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static java.util.Collections.addAll;
+
+/**
+ * In-memory data source returning {@code detailsPerCustomer} {@link CustomerDetail} per customer id,
+ * so that benchmarks only measure the assembly pipeline and not the cost of generating test data.
+ */
+public final class DataSource {
+
+    private final int detailsPerCustomer;
+    private final CustomerDetail[][] detailsByCustomerId;
+
+    public DataSource(int customerCount, int detailsPerCustomer) {
+        this.detailsPerCustomer = detailsPerCustomer;
+        this.detailsByCustomerId = new CustomerDetail[customerCount][];
+
+        for (int customerId = 0; customerId < customerCount; customerId++) {
+            final long id = customerId;
+
+            detailsByCustomerId[customerId] = LongStream.range(0, detailsPerCustomer)
+                    .mapToObj(detailIndex -> new CustomerDetail(id * detailsPerCustomer + detailIndex, id, "detail-" + id + "-" + detailIndex))
+                    .toArray(CustomerDetail[]::new);
+        }
+    }
+
+    public static List<Customer> customers(int customerCount) {
+        return LongStream.range(0, customerCount)
+                .mapToObj(customerId -> new Customer(customerId, "customer-" + customerId))
+                .toList();
+    }
+
+    public Publisher<CustomerDetail> query(List<Long> customerIds) {
+
+        final var results = new ArrayList<CustomerDetail>(customerIds.size() * detailsPerCustomer);
+        for (var customerId : customerIds) {
+            addAll(results, detailsByCustomerId[customerId.intValue()]);
+        }
+        return Flux.fromIterable(results);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.pellse.assembler.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+import static io.github.pellse.assembler.benchmark.AssemblerBenchmark.DETAILS_PER_CUSTOMER;
+import static io.github.pellse.assembler.benchmark.DataSource.customers;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static org.openjdk.jmh.annotations.Mode.Throughput;
+import static reactor.core.publisher.Flux.fromIterable;
+
+/**
+ * Naive baseline issuing one query per top level entity per rule (the N + 1 query problem),
+ * to be compared with {@link AssemblerBenchmark} for the same parameters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Throughput, AverageTime})
+@OutputTimeUnit(MILLISECONDS)
+public class NPlusOneBenchmark {
+
+    @Param({"1", "3", "6", "11"})
+    int ruleCount;
+
+    @Param({"oneToOne", "oneToMany"})
+    String mapping;
+
+    @Param({"10", "100", "1000", "10000"})
+    int batchSize;
+
+    private List<Customer> customers;
+
+    private DataSource dataSource;
+
+    @Setup
+    public void setup() {
+        customers = customers(batchSize);
+        dataSource = new DataSource(batchSize, mapping.equals("oneToOne") ? 1 : DETAILS_PER_CUSTOMER);
+    }
+
+    @Benchmark
+    public List<AssembledCustomer> assemble() {
+
+        final boolean isOneToOne = mapping.equals("oneToOne");
+
+        return fromIterable(customers)
+                .concatMap(customer -> Flux.range(0, ruleCount)
+                        .concatMap(__ -> Flux.from(dataSource.query(List.of(customer.customerId())))
+                                .collectList()
+                                .map(details -> isOneToOne ? details.getFirst() : details))
+                        .collectList()
+                        .map(details -> new AssembledCustomer(customer, details.toArray())))
+                .collectList()
+                .block();
+    }
+}
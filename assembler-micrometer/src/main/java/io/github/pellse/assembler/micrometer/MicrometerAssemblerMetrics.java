@@ -0,0 +1,104 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.pellse.assembler.micrometer;
+
+import io.github.pellse.assembler.AssemblerMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+public interface MicrometerAssemblerMetrics {
+
+    String DEFAULT_PREFIX = "assembler";
+
+    static AssemblerMetrics micrometerMetrics(MeterRegistry registry) {
+        return micrometerMetrics(registry, DEFAULT_PREFIX);
+    }
+
+    /**
+     * Bridges {@link AssemblerMetrics} to {@code registry}, meters of each rule are registered once and then looked up
+     * by rule name so recording does not go through the registry
+     */
+    static AssemblerMetrics micrometerMetrics(MeterRegistry registry, String prefix) {
+
+        record RuleMeters(
+                Timer queryLatency,
+                Counter requestedIds,
+                Counter returnedIds,
+                Counter defaultValues,
+                Counter cacheHits,
+                Counter cacheMisses,
+                Counter cacheInFlight) {
+
+            RuleMeters(MeterRegistry registry, String prefix, String ruleName) {
+                this(
+                        Timer.builder(prefix + ".rule.query").tag("rule", ruleName).register(registry),
+                        Counter.builder(prefix + ".rule.ids.requested").tag("rule", ruleName).register(registry),
+                        Counter.builder(prefix + ".rule.ids.returned").tag("rule", ruleName).register(registry),
+                        Counter.builder(prefix + ".rule.default.values").tag("rule", ruleName).register(registry),
+                        Counter.builder(prefix + ".cache.hits").tag("rule", ruleName).register(registry),
+                        Counter.builder(prefix + ".cache.misses").tag("rule", ruleName).register(registry),
+                        Counter.builder(prefix + ".cache.in.flight").tag("rule", ruleName).register(registry));
+            }
+        }
+
+        final var batchSizes = DistributionSummary.builder(prefix + ".batch.size").register(registry);
+        final Map<String, RuleMeters> ruleMeters = new ConcurrentHashMap<>();
+
+        return new AssemblerMetrics() {
+
+            @Override
+            public void onBatch(int batchSize) {
+                batchSizes.record(batchSize);
+            }
+
+            @Override
+            public void onRuleQuery(String ruleName, long latencyNanos, int requestedIds, int returnedIds) {
+
+                final var meters = ruleMeters(ruleName);
+
+                meters.queryLatency().record(latencyNanos, NANOSECONDS);
+                meters.requestedIds().increment(requestedIds);
+                meters.returnedIds().increment(returnedIds);
+            }
+
+            @Override
+            public void onDefaultValues(String ruleName, int defaultValueCount) {
+                ruleMeters(ruleName).defaultValues().increment(defaultValueCount);
+            }
+
+            @Override
+            public void onCacheAccess(String ruleName, int hitCount, int missCount, int inFlightCount) {
+
+                final var meters = ruleMeters(ruleName);
+
+                meters.cacheHits().increment(hitCount);
+                meters.cacheMisses().increment(missCount);
+                meters.cacheInFlight().increment(inFlightCount);
+            }
+
+            private RuleMeters ruleMeters(String ruleName) {
+                return ruleMeters.computeIfAbsent(ruleName, name -> new RuleMeters(registry, prefix, name));
+            }
+        };
+    }
+}
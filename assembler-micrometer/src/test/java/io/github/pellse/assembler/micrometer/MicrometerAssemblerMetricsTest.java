@@ -0,0 +1,84 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.pellse.assembler.micrometer;
+
+import io.github.pellse.assembler.Assembler;
+import io.github.pellse.assembler.test.AssemblerTestUtils;
+import io.github.pellse.assembler.util.BillingInfo;
+import io.github.pellse.assembler.util.Customer;
+import io.github.pellse.assembler.util.OrderItem;
+import io.github.pellse.assembler.util.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static io.github.pellse.assembler.AssemblerBuilder.assemblerOf;
+import static io.github.pellse.assembler.Rule.named;
+import static io.github.pellse.assembler.Rule.rule;
+import static io.github.pellse.assembler.RuleMapper.oneToMany;
+import static io.github.pellse.assembler.RuleMapper.oneToOne;
+import static io.github.pellse.assembler.caching.CacheFactory.cached;
+import static io.github.pellse.assembler.micrometer.MicrometerAssemblerMetrics.micrometerMetrics;
+import static io.github.pellse.assembler.test.AssemblerTestUtils.*;
+import static io.github.pellse.util.collection.CollectionUtils.transform;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MicrometerAssemblerMetricsTest {
+
+    private Flux<BillingInfo> getBillingInfo(List<Customer> customers) {
+        return Flux.from(AssemblerTestUtils.getBillingInfo(transform(customers, Customer::customerId)));
+    }
+
+    private Flux<OrderItem> getAllOrders(List<Customer> customers) {
+        return Flux.from(AssemblerTestUtils.getAllOrders(transform(customers, Customer::customerId)));
+    }
+
+    @Test
+    public void testMicrometerMetrics() {
+
+        final var registry = new SimpleMeterRegistry();
+
+        Assembler<Customer, Transaction> assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withMetrics(micrometerMetrics(registry))
+                .withRules(
+                        named("billingInfo", rule(BillingInfo::customerId, oneToOne(cached(this::getBillingInfo), BillingInfo::new))),
+                        named("orderItems", rule(OrderItem::customerId, oneToMany(OrderItem::id, this::getAllOrders))),
+                        Transaction::new)
+                .build();
+
+        StepVerifier.create(assembler.assemble(Flux.just(customer1, customer2, customer3)))
+                .expectSubscription()
+                .expectNext(transaction1, transaction2, transaction3)
+                .expectComplete()
+                .verify();
+
+        assertEquals(1, registry.get("assembler.batch.size").summary().count());
+        assertEquals(3, registry.get("assembler.batch.size").summary().totalAmount());
+
+        assertEquals(1, registry.get("assembler.rule.query").tag("rule", "billingInfo").timer().count());
+        assertEquals(1, registry.get("assembler.rule.query").tag("rule", "orderItems").timer().count());
+
+        assertEquals(3, registry.get("assembler.rule.ids.requested").tag("rule", "orderItems").counter().count());
+        assertEquals(2, registry.get("assembler.rule.ids.returned").tag("rule", "orderItems").counter().count());
+        assertEquals(1, registry.get("assembler.rule.default.values").tag("rule", "orderItems").counter().count());
+
+        assertEquals(3, registry.get("assembler.cache.misses").tag("rule", "billingInfo").counter().count());
+    }
+}
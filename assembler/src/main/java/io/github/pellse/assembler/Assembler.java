@@ -19,8 +19,20 @@ package io.github.pellse.assembler;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 
+import java.util.Set;
+
+import static io.github.pellse.assembler.Rule.selectRules;
+
 @FunctionalInterface
 public interface Assembler<T, R> {
 
     Flux<R> assemble(Publisher<T> topLevelEntities);
+
+    /**
+     * Only runs the rules named with {@link Rule#named} that are part of {@code ruleNames}, other named rules are
+     * skipped and their results resolved with their default value. Rules without a name are always run.
+     */
+    default Flux<R> assemble(Publisher<T> topLevelEntities, Set<String> ruleNames) {
+        return assemble(topLevelEntities).contextWrite(selectRules(ruleNames));
+    }
 }
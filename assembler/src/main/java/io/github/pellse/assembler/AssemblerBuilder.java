@@ -16,19 +16,45 @@
 
 package io.github.pellse.assembler;
 
+import io.github.pellse.assembler.JoinedAggregationFunction.JoinFunction;
 import io.github.pellse.util.function.*;
 import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Scheduler;
+import reactor.util.context.Context;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.ToLongFunction;
 import java.util.stream.Stream;
 
+import static io.github.pellse.assembler.AssemblerMetrics.recordMetrics;
+import static io.github.pellse.assembler.EntityBatch.entityBatch;
 import static io.github.pellse.assembler.FluxAdapter.fluxAdapter;
+import static io.github.pellse.assembler.LongIdResolver.longIdResolver;
+import static io.github.pellse.assembler.ThreadPerTaskAdapter.threadPerTaskAdapter;
+import static io.github.pellse.util.collection.CollectionUtils.asCollection;
+import static io.github.pellse.util.collection.CollectionUtils.size;
 import static io.github.pellse.util.collection.CollectionUtils.toStream;
+import static io.github.pellse.util.collection.CollectionUtils.transform;
+import static java.lang.Integer.MAX_VALUE;
+import static java.util.Objects.requireNonNull;
+import static java.util.Optional.ofNullable;
+import static java.util.concurrent.CompletableFuture.allOf;
+import static java.util.function.Function.identity;
+import static reactor.core.Exceptions.propagate;
+import static reactor.core.publisher.SignalType.ON_COMPLETE;
 
 public interface AssemblerBuilder {
 
@@ -36,36 +62,244 @@ public interface AssemblerBuilder {
         return AssemblerBuilder::withCorrelationIdResolver;
     }
 
-    static <T, K, R> WithRulesBuilder<T, K, R> withCorrelationIdResolver(Function<T, K> correlationIdResolver) {
+    static <T, R> ConfigurableWithRulesBuilder<T, Long, R> withLongCorrelationIdResolver(ToLongFunction<T> correlationIdResolver) {
+        return withCorrelationIdResolver(longIdResolver(correlationIdResolver));
+    }
 
-        return (rules, aggregationFunction) -> assemblerAdapter -> {
+    static <T, K, R> ConfigurableWithRulesBuilder<T, K, R> withCorrelationIdResolver(Function<T, K> correlationIdResolver) {
+        return withRulesBuilder(correlationIdResolver, false, MAX_VALUE, null);
+    }
 
-            final var queryFunctions = rules.stream()
-                    .map(rule -> rule.apply(correlationIdResolver))
-                    .toList();
+    @SuppressWarnings("unchecked")
+    private static <T, K, R> JoinFunction<T, K, R> joinFunction(BiFunction<T, Object[], R> aggregationFunction) {
+        return aggregationFunction instanceof JoinedAggregationFunction<?, ?, ?> joinedAggregationFunction
+                ? ((JoinedAggregationFunction<T, K, R>) joinedAggregationFunction).joinFunction()
+                : joinArray(aggregationFunction);
+    }
 
-            final Function<Iterable<T>, Stream<Publisher<? extends Map<K, ?>>>> subQueryMapperBuilder = topLevelEntities -> queryFunctions.stream()
-                    .map(queryFunction -> queryFunction.apply(topLevelEntities));
+    private static <T, K, R> ConfigurableWithRulesBuilder<T, K, R> withRulesBuilder(
+            Function<T, K> correlationIdResolver,
+            boolean deduplicate,
+            int parallelAggregationThreshold,
+            AssemblerMetrics metrics) {
+
+        return new ConfigurableWithRulesBuilder<>() {
+
+            @Override
+            public ConfigurableWithRulesBuilder<T, K, R> withDeduplication() {
+                return withRulesBuilder(correlationIdResolver, true, parallelAggregationThreshold, metrics);
+            }
+
+            @Override
+            public ConfigurableWithRulesBuilder<T, K, R> withParallelAggregation(int threshold) {
+
+                if (threshold < 1) {
+                    throw new IllegalArgumentException("threshold must be greater than 0, was " + threshold);
+                }
+                return withRulesBuilder(correlationIdResolver, deduplicate, threshold, metrics);
+            }
+
+            @Override
+            public ConfigurableWithRulesBuilder<T, K, R> withMetrics(AssemblerMetrics metrics) {
+                return withRulesBuilder(correlationIdResolver, deduplicate, parallelAggregationThreshold, requireNonNull(metrics, "metrics cannot be null"));
+            }
+
+            @Override
+            public Builder<T, K, R> withRules(List<Rule<T, K, ?>> rules, BiFunction<T, Object[], R> aggregationFunction) {
+                return builder(rules, joinFunction(aggregationFunction), correlationIdResolver, deduplicate, parallelAggregationThreshold, metrics);
+            }
+        };
+    }
 
-            final BiFunction<T, List<Map<K, ?>>, R> joinMapperResultsFunction =
-                    (topLevelEntity, listOfMapperResults) -> aggregationFunction.apply(topLevelEntity,
-                            listOfMapperResults.stream()
-                                    .map(mapperResult -> mapperResult.get(correlationIdResolver.apply(topLevelEntity)))
-                                    .toArray());
+    private static <T, K, R> Builder<T, K, R> builder(
+            List<Rule<T, K, ?>> rules,
+            JoinFunction<T, K, R> joinFunction,
+            Function<T, K> correlationIdResolver,
+            boolean deduplicate,
+            int parallelAggregationThreshold,
+            AssemblerMetrics metrics) {
+
+        return new Builder<>() {
+
+            @Override
+            public Assembler<T, R> build(AssemblerAdapter<T, K, R> assemblerAdapter) {
+
+                final var batchEvents = new AssemblyBatchEvent.Tracker();
+                final var subQueryMapperBuilder = subQueryMapperBuilder(rules, correlationIdResolver, deduplicate, metrics, batchEvents);
+                final var aggregateStreamBuilder = aggregateStreamBuilder(joinFunction, correlationIdResolver, deduplicate, parallelAggregationThreshold, batchEvents);
+
+                if (metrics == null) {
+                    return topLevelEntitiesProvider -> assemblerAdapter.convertSubQueryMappers(topLevelEntitiesProvider, subQueryMapperBuilder, aggregateStreamBuilder);
+                }
+
+                return topLevelEntitiesProvider -> assemblerAdapter.convertSubQueryMappers(topLevelEntitiesProvider, subQueryMapperBuilder, aggregateStreamBuilder)
+                        .contextWrite(recordMetrics(metrics));
+            }
+
+            @Override
+            public AsyncAssembler<T, R> buildAsync() {
+
+                final var batchEvents = new AssemblyBatchEvent.Tracker();
+                final var subQueryMapperBuilder = subQueryMapperBuilder(rules, correlationIdResolver, deduplicate, metrics, batchEvents);
+                final var aggregateStreamBuilder = aggregateStreamBuilder(joinFunction, correlationIdResolver, deduplicate, parallelAggregationThreshold, batchEvents);
+                final Function<Context, Context> contextWriter = metrics != null ? recordMetrics(metrics) : identity();
+
+                return topLevelEntities -> {
+                    final var subQueryFutures = subQueryMapperBuilder.apply(topLevelEntities)
+                            .map(publisher -> Mono.from(publisher).contextWrite(contextWriter).toFuture())
+                            .toList();
+
+                    final var assembledFuture = new CompletableFuture<List<R>>();
+
+                    assembledFuture.whenComplete((__, e) -> {
+                        if (e != null) {
+                            subQueryFutures.forEach(subQueryFuture -> subQueryFuture.cancel(true));
+                        }
+                    });
+
+                    subQueryFutures.forEach(subQueryFuture -> subQueryFuture.whenComplete((__, e) -> {
+                        if (e != null) {
+                            assembledFuture.completeExceptionally(e);
+                        }
+                    }));
+
+                    allOf(subQueryFutures.toArray(CompletableFuture[]::new))
+                            .thenApply(__ -> aggregateStreamBuilder.apply(topLevelEntities, transform(subQueryFutures, CompletableFuture::join)).toList())
+                            .whenComplete((results, e) -> {
+                                if (e == null) {
+                                    assembledFuture.complete(results);
+                                } else {
+                                    assembledFuture.completeExceptionally(e instanceof CompletionException ? e.getCause() : e);
+                                }
+                            });
+
+                    return assembledFuture;
+                };
+            }
+        };
+    }
 
-            final BiFunction<Iterable<T>, List<Map<K, ?>>, Stream<R>> aggregateStreamBuilder =
-                    (topLevelEntities, mapperResults) -> toStream(topLevelEntities)
-                            .filter(Objects::nonNull)
-                            .map(topLevelEntity -> joinMapperResultsFunction.apply(topLevelEntity, mapperResults));
+    private static <T, K> Function<Iterable<T>, Stream<Publisher<? extends Map<K, ?>>>> subQueryMapperBuilder(
+            List<Rule<T, K, ?>> rules,
+            Function<T, K> correlationIdResolver,
+            boolean deduplicate,
+            AssemblerMetrics metrics,
+            AssemblyBatchEvent.Tracker batchEvents) {
+
+        final var queryFunctions = rules.stream()
+                .map(rule -> rule.apply(correlationIdResolver))
+                .toList();
+
+        final Function<Iterable<T>, Iterable<T>> entitiesProvider = deduplicate ? entities -> distinct(entities, correlationIdResolver) : identity();
+
+        return topLevelEntities -> {
+            final int batchSize = size(topLevelEntities);
+
+            final var event = AssemblyBatchEvent.begin(batchSize, queryFunctions.size());
+            if (metrics != null) {
+                metrics.onBatch(batchSize);
+            }
+
+            final var entities = entityBatch(entitiesProvider.apply(topLevelEntities));
+            if (event == null) {
+                return queryFunctions.stream()
+                        .map(queryFunction -> queryFunction.apply(entities));
+            }
+
+            // Completed by the aggregation of the batch, or as soon as one of its sub queries fails or is cancelled
+            batchEvents.track(topLevelEntities, event);
+
+            return queryFunctions.stream()
+                    .map(queryFunction -> queryFunction.apply(entities).doFinally(signalType -> {
+                        if (signalType != ON_COMPLETE) {
+                            batchEvents.untrack(topLevelEntities);
+                            event.complete();
+                        }
+                    }));
+        };
+    }
 
-            return topLevelEntitiesProvider -> assemblerAdapter.convertSubQueryMappers(topLevelEntitiesProvider, subQueryMapperBuilder, aggregateStreamBuilder);
+    private static <T, K, R> BiFunction<Iterable<T>, List<Map<K, ?>>, Stream<R>> aggregateStreamBuilder(
+            JoinFunction<T, K, R> joinFunction,
+            Function<T, K> correlationIdResolver,
+            boolean deduplicate,
+            int parallelAggregationThreshold,
+            AssemblyBatchEvent.Tracker batchEvents) {
+
+        final var aggregateStream = aggregateStreamBuilder(joinFunction, correlationIdResolver, deduplicate, parallelAggregationThreshold);
+
+        return (topLevelEntities, mapperResults) -> {
+            final var event = batchEvents.untrack(topLevelEntities);
+            if (event == null) {
+                return aggregateStream.apply(topLevelEntities, mapperResults);
+            }
+
+            // Aggregated eagerly so that the event covers the whole aggregation
+            try {
+                return aggregateStream.apply(topLevelEntities, mapperResults).toList().stream();
+            } finally {
+                event.complete();
+            }
         };
     }
 
+    private static <T, K, R> BiFunction<Iterable<T>, List<Map<K, ?>>, Stream<R>> aggregateStreamBuilder(
+            JoinFunction<T, K, R> joinFunction,
+            Function<T, K> correlationIdResolver,
+            boolean deduplicate,
+            int parallelAggregationThreshold) {
+
+        final Function<List<Map<K, ?>>, Function<T, R>> joinMapperResultsFunction = joinFunction.apply(correlationIdResolver);
+
+        return (topLevelEntities, mapperResults) -> {
+            final var entities = asCollection(topLevelEntities);
+            final var parallel = entities.size() >= parallelAggregationThreshold;
+
+            final var joinMapperResults = joinMapperResultsFunction.apply(mapperResults);
+            final var aggregationFunction = deduplicate ? deduplicate(joinMapperResults, correlationIdResolver, parallel) : joinMapperResults;
+
+            if (!parallel) {
+                return entities.stream()
+                        .filter(Objects::nonNull)
+                        .map(aggregationFunction);
+            }
+
+            // Aggregated eagerly, streams returned from here are consumed sequentially by the assembler adapters
+            return entities.parallelStream()
+                    .filter(Objects::nonNull)
+                    .map(aggregationFunction)
+                    .toList()
+                    .stream();
+        };
+    }
+
+    private static <T, K, R> Function<T, R> deduplicate(Function<T, R> joinMapperResults, Function<T, K> correlationIdResolver, boolean concurrent) {
+
+        // Null ids and null results are wrapped so both maps handle them the same way, ConcurrentHashMap rejects nulls
+        final Map<Optional<K>, Optional<R>> resultsById = concurrent ? new ConcurrentHashMap<>() : new HashMap<>();
+
+        return topLevelEntity -> resultsById.computeIfAbsent(ofNullable(correlationIdResolver.apply(topLevelEntity)), __ -> ofNullable(joinMapperResults.apply(topLevelEntity)))
+                .orElse(null);
+    }
+
+    private static <T, K> List<T> distinct(Iterable<T> entities, Function<T, K> correlationIdResolver) {
+
+        final var ids = new HashSet<K>();
+
+        return toStream(entities)
+                .filter(Objects::nonNull)
+                .filter(entity -> ids.add(correlationIdResolver.apply(entity)))
+                .toList();
+    }
+
     @FunctionalInterface
     interface WithCorrelationIdResolverBuilder<R> {
 
-        <T, K> WithRulesBuilder<T, K, R> withCorrelationIdResolver(Function<T, K> correlationIdResolver);
+        <T, K> ConfigurableWithRulesBuilder<T, K, R> withCorrelationIdResolver(Function<T, K> correlationIdResolver);
+
+        default <T> ConfigurableWithRulesBuilder<T, Long, R> withLongCorrelationIdResolver(ToLongFunction<T> correlationIdResolver) {
+            return withCorrelationIdResolver(longIdResolver(correlationIdResolver));
+        }
     }
 
     @FunctionalInterface
@@ -76,7 +310,9 @@ public interface AssemblerBuilder {
                 Rule<T, K, E1> rule,
                 BiFunction<T, E1, R> aggregationFunction) {
 
-            return withRules(List.of(rule), (t, s) -> aggregationFunction.apply(t, (E1) s[0]));
+            return withRules(List.of(rule), new JoinedAggregationFunction<>(
+                    (t, s) -> aggregationFunction.apply(t, (E1) s[0]),
+                    join(aggregationFunction)));
         }
 
         @SuppressWarnings("unchecked")
@@ -85,7 +321,9 @@ public interface AssemblerBuilder {
                 Rule<T, K, E2> rule2,
                 Function3<T, E1, E2, R> aggregationFunction) {
 
-            return withRules(List.of(rule1, rule2), (t, s) -> aggregationFunction.apply(t, (E1) s[0], (E2) s[1]));
+            return withRules(List.of(rule1, rule2), new JoinedAggregationFunction<>(
+                    (t, s) -> aggregationFunction.apply(t, (E1) s[0], (E2) s[1]),
+                    join(aggregationFunction)));
         }
 
         @SuppressWarnings("unchecked")
@@ -95,8 +333,9 @@ public interface AssemblerBuilder {
                 Rule<T, K, E3> rule3,
                 Function4<T, E1, E2, E3, R> aggregationFunction) {
 
-            return withRules(List.of(rule1, rule2, rule3),
-                    (t, s) -> aggregationFunction.apply(t, (E1) s[0], (E2) s[1], (E3) s[2]));
+            return withRules(List.of(rule1, rule2, rule3), new JoinedAggregationFunction<>(
+                    (t, s) -> aggregationFunction.apply(t, (E1) s[0], (E2) s[1], (E3) s[2]),
+                    join(aggregationFunction)));
         }
 
         @SuppressWarnings("unchecked")
@@ -107,8 +346,9 @@ public interface AssemblerBuilder {
                 Rule<T, K, E4> rule4,
                 Function5<T, E1, E2, E3, E4, R> aggregationFunction) {
 
-            return withRules(List.of(rule1, rule2, rule3, rule4),
-                    (t, s) -> aggregationFunction.apply(t, (E1) s[0], (E2) s[1], (E3) s[2], (E4) s[3]));
+            return withRules(List.of(rule1, rule2, rule3, rule4), new JoinedAggregationFunction<>(
+                    (t, s) -> aggregationFunction.apply(t, (E1) s[0], (E2) s[1], (E3) s[2], (E4) s[3]),
+                    join(aggregationFunction)));
         }
 
         @SuppressWarnings("unchecked")
@@ -120,8 +360,9 @@ public interface AssemblerBuilder {
                 Rule<T, K, E5> rule5,
                 Function6<T, E1, E2, E3, E4, E5, R> aggregationFunction) {
 
-            return withRules(List.of(rule1, rule2, rule3, rule4, rule5),
-                    (t, s) -> aggregationFunction.apply(t, (E1) s[0], (E2) s[1], (E3) s[2], (E4) s[3], (E5) s[4]));
+            return withRules(List.of(rule1, rule2, rule3, rule4, rule5), new JoinedAggregationFunction<>(
+                    (t, s) -> aggregationFunction.apply(t, (E1) s[0], (E2) s[1], (E3) s[2], (E4) s[3], (E5) s[4]),
+                    join(aggregationFunction)));
         }
 
         @SuppressWarnings("unchecked")
@@ -134,8 +375,9 @@ public interface AssemblerBuilder {
                 Rule<T, K, E6> rule6,
                 Function7<T, E1, E2, E3, E4, E5, E6, R> aggregationFunction) {
 
-            return withRules(List.of(rule1, rule2, rule3, rule4, rule5, rule6),
-                    (t, s) -> aggregationFunction.apply(t, (E1) s[0], (E2) s[1], (E3) s[2], (E4) s[3], (E5) s[4], (E6) s[5]));
+            return withRules(List.of(rule1, rule2, rule3, rule4, rule5, rule6), new JoinedAggregationFunction<>(
+                    (t, s) -> aggregationFunction.apply(t, (E1) s[0], (E2) s[1], (E3) s[2], (E4) s[3], (E5) s[4], (E6) s[5]),
+                    join(aggregationFunction)));
         }
 
         @SuppressWarnings("unchecked")
@@ -149,9 +391,9 @@ public interface AssemblerBuilder {
                 Rule<T, K, E7> rule7,
                 Function8<T, E1, E2, E3, E4, E5, E6, E7, R> aggregationFunction) {
 
-            return withRules(List.of(rule1, rule2, rule3, rule4, rule5, rule6, rule7),
-                    (t, s) -> aggregationFunction.apply(
-                            t, (E1) s[0], (E2) s[1], (E3) s[2], (E4) s[3], (E5) s[4], (E6) s[5], (E7) s[6]));
+            return withRules(List.of(rule1, rule2, rule3, rule4, rule5, rule6, rule7), new JoinedAggregationFunction<>(
+                    (t, s) -> aggregationFunction.apply(t, (E1) s[0], (E2) s[1], (E3) s[2], (E4) s[3], (E5) s[4], (E6) s[5], (E7) s[6]),
+                    join(aggregationFunction)));
         }
 
         @SuppressWarnings("unchecked")
@@ -166,9 +408,9 @@ public interface AssemblerBuilder {
                 Rule<T, K, E8> rule8,
                 Function9<T, E1, E2, E3, E4, E5, E6, E7, E8, R> aggregationFunction) {
 
-            return withRules(List.of(rule1, rule2, rule3, rule4, rule5, rule6, rule7, rule8),
-                    (t, s) -> aggregationFunction.apply(
-                            t, (E1) s[0], (E2) s[1], (E3) s[2], (E4) s[3], (E5) s[4], (E6) s[5], (E7) s[6], (E8) s[7]));
+            return withRules(List.of(rule1, rule2, rule3, rule4, rule5, rule6, rule7, rule8), new JoinedAggregationFunction<>(
+                    (t, s) -> aggregationFunction.apply(t, (E1) s[0], (E2) s[1], (E3) s[2], (E4) s[3], (E5) s[4], (E6) s[5], (E7) s[6], (E8) s[7]),
+                    join(aggregationFunction)));
         }
 
         @SuppressWarnings("unchecked")
@@ -184,9 +426,9 @@ public interface AssemblerBuilder {
                 Rule<T, K, E9> rule9,
                 Function10<T, E1, E2, E3, E4, E5, E6, E7, E8, E9, R> aggregationFunction) {
 
-            return withRules(List.of(rule1, rule2, rule3, rule4, rule5, rule6, rule7, rule8, rule9),
-                    (t, s) -> aggregationFunction.apply(
-                            t, (E1) s[0], (E2) s[1], (E3) s[2], (E4) s[3], (E5) s[4], (E6) s[5], (E7) s[6], (E8) s[7], (E9) s[8]));
+            return withRules(List.of(rule1, rule2, rule3, rule4, rule5, rule6, rule7, rule8, rule9), new JoinedAggregationFunction<>(
+                    (t, s) -> aggregationFunction.apply(t, (E1) s[0], (E2) s[1], (E3) s[2], (E4) s[3], (E5) s[4], (E6) s[5], (E7) s[6], (E8) s[7], (E9) s[8]),
+                    join(aggregationFunction)));
         }
 
         @SuppressWarnings("unchecked")
@@ -203,9 +445,9 @@ public interface AssemblerBuilder {
                 Rule<T, K, E10> rule10,
                 Function11<T, E1, E2, E3, E4, E5, E6, E7, E8, E9, E10, R> aggregationFunction) {
 
-            return withRules(List.of(rule1, rule2, rule3, rule4, rule5, rule6, rule7, rule8, rule9, rule10),
-                    (t, s) -> aggregationFunction.apply(
-                            t, (E1) s[0], (E2) s[1], (E3) s[2], (E4) s[3], (E5) s[4], (E6) s[5], (E7) s[6], (E8) s[7], (E9) s[8], (E10) s[9]));
+            return withRules(List.of(rule1, rule2, rule3, rule4, rule5, rule6, rule7, rule8, rule9, rule10), new JoinedAggregationFunction<>(
+                    (t, s) -> aggregationFunction.apply(t, (E1) s[0], (E2) s[1], (E3) s[2], (E4) s[3], (E5) s[4], (E6) s[5], (E7) s[6], (E8) s[7], (E9) s[8], (E10) s[9]),
+                    join(aggregationFunction)));
         }
 
         @SuppressWarnings("unchecked")
@@ -223,14 +465,40 @@ public interface AssemblerBuilder {
                 Rule<T, K, E11> rule11,
                 Function12<T, E1, E2, E3, E4, E5, E6, E7, E8, E9, E10, E11, R> aggregationFunction) {
 
-            return withRules(List.of(rule1, rule2, rule3, rule4, rule5, rule6, rule7, rule8, rule9, rule10, rule11),
-                    (t, s) -> aggregationFunction.apply(
-                            t, (E1) s[0], (E2) s[1], (E3) s[2], (E4) s[3], (E5) s[4], (E6) s[5], (E7) s[6], (E8) s[7], (E9) s[8], (E10) s[9], (E11) s[10]));
+            return withRules(List.of(rule1, rule2, rule3, rule4, rule5, rule6, rule7, rule8, rule9, rule10, rule11), new JoinedAggregationFunction<>(
+                    (t, s) -> aggregationFunction.apply(t, (E1) s[0], (E2) s[1], (E3) s[2], (E4) s[3], (E5) s[4], (E6) s[5], (E7) s[6], (E8) s[7], (E9) s[8], (E10) s[9], (E11) s[10]),
+                    join(aggregationFunction)));
         }
 
         Builder<T, K, R> withRules(List<Rule<T, K, ?>> rules, BiFunction<T, Object[], R> aggregationFunction);
     }
 
+    /**
+     * {@link WithRulesBuilder} returned by {@link AssemblerBuilder}, the options below apply to the assembler built
+     * from the rules given afterward
+     */
+    interface ConfigurableWithRulesBuilder<T, K, R> extends WithRulesBuilder<T, K, R> {
+
+        /**
+         * Queries and aggregates each distinct correlation id only once per batch, including {@code null} ids. The first
+         * top level entity of the batch with a given id wins, its result is emitted again for every later top level
+         * entity sharing that id, even if those entities differ in other fields.
+         */
+        ConfigurableWithRulesBuilder<T, K, R> withDeduplication();
+
+        /**
+         * Aggregates batches of at least {@code threshold} top level entities in parallel on the common
+         * {@link java.util.concurrent.ForkJoinPool}, results are still emitted in the order of the top level entities.
+         */
+        ConfigurableWithRulesBuilder<T, K, R> withParallelAggregation(int threshold);
+
+        /**
+         * Reports batch sizes to {@code metrics}, and makes it available to the rules and caches of this assembler
+         * through the subscriber context, see {@link AssemblerMetrics#metrics(reactor.util.context.ContextView)}.
+         */
+        ConfigurableWithRulesBuilder<T, K, R> withMetrics(AssemblerMetrics metrics);
+    }
+
     @FunctionalInterface
     interface Builder<T, K, R> {
 
@@ -242,6 +510,249 @@ public interface AssemblerBuilder {
             return build(fluxAdapter(scheduler));
         }
 
+        default Assembler<T, R> build(ThreadFactory threadFactory) {
+            return build(threadPerTaskAdapter(threadFactory));
+        }
+
         Assembler<T, R> build(AssemblerAdapter<T, K, R> adapter);
+
+        default SyncAssembler<T, R> buildSync() {
+
+            final var asyncAssembler = buildAsync();
+
+            return topLevelEntities -> {
+                try {
+                    return asyncAssembler.assemble(topLevelEntities).join();
+                } catch (CompletionException e) {
+                    throw propagate(e.getCause());
+                }
+            };
+        }
+
+        default AsyncAssembler<T, R> buildAsync() {
+
+            final var assembler = build();
+
+            return topLevelEntities -> assembler.assemble(Flux.fromIterable(topLevelEntities)).collectList().toFuture();
+        }
+    }
+
+    private static <T, K, R> JoinFunction<T, K, R> joinArray(BiFunction<T, Object[], R> aggregationFunction) {
+
+        return correlationIdResolver -> mapperResults -> {
+            final var maps = mapperResults.toArray(Map[]::new);
+
+            return topLevelEntity -> {
+                final var id = correlationIdResolver.apply(topLevelEntity);
+                final var subEntities = new Object[maps.length];
+
+                for (int i = 0; i < maps.length; i++) {
+                    subEntities[i] = maps[i].get(id);
+                }
+                return aggregationFunction.apply(topLevelEntity, subEntities);
+            };
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, K, E1, R> JoinFunction<T, K, R> join(BiFunction<T, E1, R> aggregationFunction) {
+
+        return correlationIdResolver -> mapperResults -> {
+            final var m1 = (Map<K, E1>) mapperResults.get(0);
+
+            return topLevelEntity -> {
+                final var id = correlationIdResolver.apply(topLevelEntity);
+                return aggregationFunction.apply(topLevelEntity, m1.get(id));
+            };
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, K, E1, E2, R> JoinFunction<T, K, R> join(Function3<T, E1, E2, R> aggregationFunction) {
+
+        return correlationIdResolver -> mapperResults -> {
+            final var m1 = (Map<K, E1>) mapperResults.get(0);
+            final var m2 = (Map<K, E2>) mapperResults.get(1);
+
+            return topLevelEntity -> {
+                final var id = correlationIdResolver.apply(topLevelEntity);
+                return aggregationFunction.apply(topLevelEntity, m1.get(id), m2.get(id));
+            };
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, K, E1, E2, E3, R> JoinFunction<T, K, R> join(Function4<T, E1, E2, E3, R> aggregationFunction) {
+
+        return correlationIdResolver -> mapperResults -> {
+            final var m1 = (Map<K, E1>) mapperResults.get(0);
+            final var m2 = (Map<K, E2>) mapperResults.get(1);
+            final var m3 = (Map<K, E3>) mapperResults.get(2);
+
+            return topLevelEntity -> {
+                final var id = correlationIdResolver.apply(topLevelEntity);
+                return aggregationFunction.apply(topLevelEntity, m1.get(id), m2.get(id), m3.get(id));
+            };
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, K, E1, E2, E3, E4, R> JoinFunction<T, K, R> join(Function5<T, E1, E2, E3, E4, R> aggregationFunction) {
+
+        return correlationIdResolver -> mapperResults -> {
+            final var m1 = (Map<K, E1>) mapperResults.get(0);
+            final var m2 = (Map<K, E2>) mapperResults.get(1);
+            final var m3 = (Map<K, E3>) mapperResults.get(2);
+            final var m4 = (Map<K, E4>) mapperResults.get(3);
+
+            return topLevelEntity -> {
+                final var id = correlationIdResolver.apply(topLevelEntity);
+                return aggregationFunction.apply(topLevelEntity, m1.get(id), m2.get(id), m3.get(id), m4.get(id));
+            };
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, K, E1, E2, E3, E4, E5, R> JoinFunction<T, K, R> join(Function6<T, E1, E2, E3, E4, E5, R> aggregationFunction) {
+
+        return correlationIdResolver -> mapperResults -> {
+            final var m1 = (Map<K, E1>) mapperResults.get(0);
+            final var m2 = (Map<K, E2>) mapperResults.get(1);
+            final var m3 = (Map<K, E3>) mapperResults.get(2);
+            final var m4 = (Map<K, E4>) mapperResults.get(3);
+            final var m5 = (Map<K, E5>) mapperResults.get(4);
+
+            return topLevelEntity -> {
+                final var id = correlationIdResolver.apply(topLevelEntity);
+                return aggregationFunction.apply(topLevelEntity, m1.get(id), m2.get(id), m3.get(id), m4.get(id), m5.get(id));
+            };
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, K, E1, E2, E3, E4, E5, E6, R> JoinFunction<T, K, R> join(Function7<T, E1, E2, E3, E4, E5, E6, R> aggregationFunction) {
+
+        return correlationIdResolver -> mapperResults -> {
+            final var m1 = (Map<K, E1>) mapperResults.get(0);
+            final var m2 = (Map<K, E2>) mapperResults.get(1);
+            final var m3 = (Map<K, E3>) mapperResults.get(2);
+            final var m4 = (Map<K, E4>) mapperResults.get(3);
+            final var m5 = (Map<K, E5>) mapperResults.get(4);
+            final var m6 = (Map<K, E6>) mapperResults.get(5);
+
+            return topLevelEntity -> {
+                final var id = correlationIdResolver.apply(topLevelEntity);
+                return aggregationFunction.apply(topLevelEntity, m1.get(id), m2.get(id), m3.get(id), m4.get(id), m5.get(id), m6.get(id));
+            };
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, K, E1, E2, E3, E4, E5, E6, E7, R> JoinFunction<T, K, R> join(Function8<T, E1, E2, E3, E4, E5, E6, E7, R> aggregationFunction) {
+
+        return correlationIdResolver -> mapperResults -> {
+            final var m1 = (Map<K, E1>) mapperResults.get(0);
+            final var m2 = (Map<K, E2>) mapperResults.get(1);
+            final var m3 = (Map<K, E3>) mapperResults.get(2);
+            final var m4 = (Map<K, E4>) mapperResults.get(3);
+            final var m5 = (Map<K, E5>) mapperResults.get(4);
+            final var m6 = (Map<K, E6>) mapperResults.get(5);
+            final var m7 = (Map<K, E7>) mapperResults.get(6);
+
+            return topLevelEntity -> {
+                final var id = correlationIdResolver.apply(topLevelEntity);
+                return aggregationFunction.apply(topLevelEntity, m1.get(id), m2.get(id), m3.get(id), m4.get(id), m5.get(id), m6.get(id), m7.get(id));
+            };
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, K, E1, E2, E3, E4, E5, E6, E7, E8, R> JoinFunction<T, K, R> join(Function9<T, E1, E2, E3, E4, E5, E6, E7, E8, R> aggregationFunction) {
+
+        return correlationIdResolver -> mapperResults -> {
+            final var m1 = (Map<K, E1>) mapperResults.get(0);
+            final var m2 = (Map<K, E2>) mapperResults.get(1);
+            final var m3 = (Map<K, E3>) mapperResults.get(2);
+            final var m4 = (Map<K, E4>) mapperResults.get(3);
+            final var m5 = (Map<K, E5>) mapperResults.get(4);
+            final var m6 = (Map<K, E6>) mapperResults.get(5);
+            final var m7 = (Map<K, E7>) mapperResults.get(6);
+            final var m8 = (Map<K, E8>) mapperResults.get(7);
+
+            return topLevelEntity -> {
+                final var id = correlationIdResolver.apply(topLevelEntity);
+                return aggregationFunction.apply(
+                        topLevelEntity, m1.get(id), m2.get(id), m3.get(id), m4.get(id), m5.get(id), m6.get(id), m7.get(id), m8.get(id));
+            };
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, K, E1, E2, E3, E4, E5, E6, E7, E8, E9, R> JoinFunction<T, K, R> join(Function10<T, E1, E2, E3, E4, E5, E6, E7, E8, E9, R> aggregationFunction) {
+
+        return correlationIdResolver -> mapperResults -> {
+            final var m1 = (Map<K, E1>) mapperResults.get(0);
+            final var m2 = (Map<K, E2>) mapperResults.get(1);
+            final var m3 = (Map<K, E3>) mapperResults.get(2);
+            final var m4 = (Map<K, E4>) mapperResults.get(3);
+            final var m5 = (Map<K, E5>) mapperResults.get(4);
+            final var m6 = (Map<K, E6>) mapperResults.get(5);
+            final var m7 = (Map<K, E7>) mapperResults.get(6);
+            final var m8 = (Map<K, E8>) mapperResults.get(7);
+            final var m9 = (Map<K, E9>) mapperResults.get(8);
+
+            return topLevelEntity -> {
+                final var id = correlationIdResolver.apply(topLevelEntity);
+                return aggregationFunction.apply(
+                        topLevelEntity, m1.get(id), m2.get(id), m3.get(id), m4.get(id), m5.get(id), m6.get(id), m7.get(id), m8.get(id), m9.get(id));
+            };
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, K, E1, E2, E3, E4, E5, E6, E7, E8, E9, E10, R> JoinFunction<T, K, R> join(Function11<T, E1, E2, E3, E4, E5, E6, E7, E8, E9, E10, R> aggregationFunction) {
+
+        return correlationIdResolver -> mapperResults -> {
+            final var m1 = (Map<K, E1>) mapperResults.get(0);
+            final var m2 = (Map<K, E2>) mapperResults.get(1);
+            final var m3 = (Map<K, E3>) mapperResults.get(2);
+            final var m4 = (Map<K, E4>) mapperResults.get(3);
+            final var m5 = (Map<K, E5>) mapperResults.get(4);
+            final var m6 = (Map<K, E6>) mapperResults.get(5);
+            final var m7 = (Map<K, E7>) mapperResults.get(6);
+            final var m8 = (Map<K, E8>) mapperResults.get(7);
+            final var m9 = (Map<K, E9>) mapperResults.get(8);
+            final var m10 = (Map<K, E10>) mapperResults.get(9);
+
+            return topLevelEntity -> {
+                final var id = correlationIdResolver.apply(topLevelEntity);
+                return aggregationFunction.apply(
+                        topLevelEntity, m1.get(id), m2.get(id), m3.get(id), m4.get(id), m5.get(id), m6.get(id), m7.get(id), m8.get(id), m9.get(id), m10.get(id));
+            };
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, K, E1, E2, E3, E4, E5, E6, E7, E8, E9, E10, E11, R> JoinFunction<T, K, R> join(Function12<T, E1, E2, E3, E4, E5, E6, E7, E8, E9, E10, E11, R> aggregationFunction) {
+
+        return correlationIdResolver -> mapperResults -> {
+            final var m1 = (Map<K, E1>) mapperResults.get(0);
+            final var m2 = (Map<K, E2>) mapperResults.get(1);
+            final var m3 = (Map<K, E3>) mapperResults.get(2);
+            final var m4 = (Map<K, E4>) mapperResults.get(3);
+            final var m5 = (Map<K, E5>) mapperResults.get(4);
+            final var m6 = (Map<K, E6>) mapperResults.get(5);
+            final var m7 = (Map<K, E7>) mapperResults.get(6);
+            final var m8 = (Map<K, E8>) mapperResults.get(7);
+            final var m9 = (Map<K, E9>) mapperResults.get(8);
+            final var m10 = (Map<K, E10>) mapperResults.get(9);
+            final var m11 = (Map<K, E11>) mapperResults.get(10);
+
+            return topLevelEntity -> {
+                final var id = correlationIdResolver.apply(topLevelEntity);
+                return aggregationFunction.apply(
+                        topLevelEntity, m1.get(id), m2.get(id), m3.get(id), m4.get(id), m5.get(id), m6.get(id), m7.get(id), m8.get(id), m9.get(id), m10.get(id), m11.get(id));
+            };
+        };
     }
 }
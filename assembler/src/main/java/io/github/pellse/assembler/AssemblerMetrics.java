@@ -0,0 +1,49 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.pellse.assembler;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Listener notified by the assembler, its rules and its caches, every method receives primitive values only so
+ * implementations can record them without allocating. Methods are called concurrently and must not block.
+ */
+public interface AssemblerMetrics {
+
+    default void onBatch(int batchSize) {
+    }
+
+    default void onRuleQuery(String ruleName, long latencyNanos, int requestedIds, int returnedIds) {
+    }
+
+    default void onDefaultValues(String ruleName, int defaultValueCount) {
+    }
+
+    default void onCacheAccess(String ruleName, int hitCount, int missCount, int inFlightCount) {
+    }
+
+    static Function<Context, Context> recordMetrics(AssemblerMetrics metrics) {
+        return ctx -> ctx.put(AssemblerMetrics.class, metrics);
+    }
+
+    static Optional<AssemblerMetrics> metrics(ContextView ctx) {
+        return ctx.getOrEmpty(AssemblerMetrics.class);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.pellse.assembler;
+
+import jdk.jfr.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Name("io.github.pellse.assembler.AssemblyBatch")
+@Label("Assembly Batch")
+@Category("Assembler")
+@Description("Assembly of a batch of top level entities, from the submission to the rules until the aggregation of their results")
+@StackTrace(false)
+class AssemblyBatchEvent extends Event {
+
+    @Label("Batch Size")
+    int batchSize;
+
+    @Label("Rule Count")
+    int ruleCount;
+
+    private transient boolean completed;
+
+    /**
+     * Returns a started event, or {@code null} when the event is not enabled in any recording
+     */
+    static AssemblyBatchEvent begin(int batchSize, int ruleCount) {
+
+        final var event = new AssemblyBatchEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+
+        event.batchSize = batchSize;
+        event.ruleCount = ruleCount;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits this event the first time it is called, whether the batch was aggregated, failed or was cancelled
+     */
+    synchronized void complete() {
+        if (!completed) {
+            completed = true;
+            if (shouldCommit()) {
+                commit();
+            }
+        }
+    }
+
+    /**
+     * Events of the batches in progress of an assembler. Adapters hand the same batch instance to the sub query and
+     * aggregation steps, events are therefore looked up by identity of that batch
+     */
+    static final class Tracker {
+
+        private record BatchKey(Iterable<?> batch) {
+
+            @Override
+            public boolean equals(Object o) {
+                return o instanceof BatchKey other && other.batch == batch;
+            }
+
+            @Override
+            public int hashCode() {
+                return System.identityHashCode(batch);
+            }
+        }
+
+        private final Map<BatchKey, AssemblyBatchEvent> events = new ConcurrentHashMap<>();
+
+        void track(Iterable<?> batch, AssemblyBatchEvent event) {
+            events.put(new BatchKey(batch), event);
+        }
+
+        AssemblyBatchEvent untrack(Iterable<?> batch) {
+            return events.isEmpty() ? null : events.remove(new BatchKey(batch));
+        }
+    }
+}
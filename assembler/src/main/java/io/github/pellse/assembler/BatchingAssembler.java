@@ -0,0 +1,55 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.pellse.assembler;
+
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+
+import static java.util.function.Function.identity;
+import static reactor.core.scheduler.Schedulers.parallel;
+
+public interface BatchingAssembler {
+
+    static <T, R> Assembler<T, R> batchingAssembler(Assembler<T, R> assembler, int maxBatchSize, Duration maxBatchTime) {
+        return batchingAssembler(assembler, maxBatchSize, maxBatchTime, parallel());
+    }
+
+    /**
+     * Groups concurrent {@code assemble()} calls, a batch is sent to {@code assembler} once it holds at least
+     * {@code maxBatchSize} top level entities or {@code maxBatchTime} after its first call, whichever comes first.
+     * Each caller only receives the results of its own top level entities, in order.
+     * <p>
+     * Results are split between callers by position, so {@code assembler} must emit exactly one result per top level
+     * entity in the order of the top level entities (e.g. not built with
+     * {@link FluxAdapter#unorderedStreamingFluxAdapter(int)}), batches failing this check are completed with an
+     * {@link IllegalStateException}. Calls are only batched together when their subscriber contexts agree on
+     * {@link Assembler#assemble(org.reactivestreams.Publisher, java.util.Set) selected rules},
+     * {@link DegradedRules} and {@link AssemblerMetrics}, the context of the first call of a batch is propagated to
+     * {@code assembler}.
+     */
+    static <T, R> Assembler<T, R> batchingAssembler(Assembler<T, R> assembler, int maxBatchSize, Duration maxBatchTime, Scheduler scheduler) {
+
+        final var callBatcher = new CallBatcher<>(assembler, maxBatchSize, maxBatchTime, scheduler);
+
+        return topLevelEntities -> Flux.from(topLevelEntities)
+                .collectList()
+                .flatMap(callBatcher::submit)
+                .flatMapIterable(identity());
+    }
+}
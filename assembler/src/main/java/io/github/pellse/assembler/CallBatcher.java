@@ -0,0 +1,175 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.pellse.assembler;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static io.github.pellse.assembler.Rule.SELECTED_RULES_KEY;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+
+class CallBatcher<T, R> {
+
+    private record PendingCall<T, R>(List<T> entities, ContextView context, Sinks.One<List<R>> sink) {
+    }
+
+    /**
+     * Calls are only assembled together when they agree on the context entries read by the assembler
+     */
+    private record ContextKey(Object selectedRules, Object degradedRules, Object metrics) {
+
+        static ContextKey contextKey(PendingCall<?, ?> call) {
+            final var ctx = call.context();
+            return new ContextKey(
+                    ctx.getOrDefault(SELECTED_RULES_KEY, null),
+                    ctx.getOrDefault(DegradedRules.class, null),
+                    ctx.getOrDefault(AssemblerMetrics.class, null));
+        }
+    }
+
+    private final Assembler<T, R> assembler;
+    private final int maxBatchSize;
+    private final Duration maxBatchTime;
+    private final Scheduler scheduler;
+
+    private final Lock lock = new ReentrantLock();
+
+    private List<PendingCall<T, R>> pendingCalls = new ArrayList<>();
+    private int pendingEntityCount;
+    private Disposable scheduledFlush;
+
+    CallBatcher(Assembler<T, R> assembler, int maxBatchSize, Duration maxBatchTime, Scheduler scheduler) {
+        this.assembler = assembler;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchTime = maxBatchTime;
+        this.scheduler = scheduler;
+    }
+
+    Mono<List<R>> submit(List<T> entities) {
+        return entities.isEmpty() ? Mono.just(List.of()) : Mono.deferContextual(ctx -> submit(entities, ctx));
+    }
+
+    private Mono<List<R>> submit(List<T> entities, ContextView context) {
+
+        final Sinks.One<List<R>> sink = Sinks.one();
+        List<PendingCall<T, R>> callsToFlush = null;
+
+        lock.lock();
+        try {
+            pendingCalls.add(new PendingCall<>(entities, context, sink));
+            pendingEntityCount += entities.size();
+
+            if (pendingEntityCount >= maxBatchSize) {
+                callsToFlush = drain();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(this::flush, maxBatchTime.toNanos(), NANOSECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (callsToFlush != null) {
+            execute(callsToFlush);
+        }
+        return sink.asMono();
+    }
+
+    private void flush() {
+
+        final List<PendingCall<T, R>> callsToFlush;
+
+        lock.lock();
+        try {
+            callsToFlush = drain();
+        } finally {
+            lock.unlock();
+        }
+
+        execute(callsToFlush);
+    }
+
+    private List<PendingCall<T, R>> drain() {
+
+        if (scheduledFlush != null) {
+            scheduledFlush.dispose();
+            scheduledFlush = null;
+        }
+
+        final var calls = pendingCalls;
+        pendingCalls = new ArrayList<>();
+        pendingEntityCount = 0;
+
+        return calls;
+    }
+
+    private void execute(List<PendingCall<T, R>> calls) {
+
+        if (calls.isEmpty()) {
+            return;
+        }
+
+        calls.stream()
+                .collect(groupingBy(ContextKey::contextKey, LinkedHashMap::new, toList()))
+                .values()
+                .forEach(this::assemble);
+    }
+
+    private void assemble(List<PendingCall<T, R>> calls) {
+
+        final var entities = calls.stream()
+                .flatMap(call -> call.entities().stream())
+                .toList();
+
+        assembler.assemble(Flux.fromIterable(entities))
+                .collectList()
+                .contextWrite(calls.getFirst().context())
+                .subscribe(
+                        results -> dispatch(calls, entities.size(), results),
+                        error -> calls.forEach(call -> call.sink().tryEmitError(error)));
+    }
+
+    private static <T, R> void dispatch(List<PendingCall<T, R>> calls, int entityCount, List<R> results) {
+
+        if (results.size() != entityCount) {
+            final var error = new IllegalStateException("Expected one result per top level entity to split the batch between callers, got "
+                    + results.size() + " results for " + entityCount + " top level entities");
+
+            calls.forEach(call -> call.sink().tryEmitError(error));
+            return;
+        }
+
+        int from = 0;
+        for (var call : calls) {
+            final int to = from + call.entities().size();
+            call.sink().tryEmitValue(List.copyOf(results.subList(from, to)));
+            from = to;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.pellse.assembler;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static java.util.Collections.unmodifiableSet;
+
+public interface DegradedRules {
+
+    String UNNAMED_RULE = "unnamed";
+
+    Set<String> ruleNames();
+
+    void add(String ruleName);
+
+    default boolean isEmpty() {
+        return ruleNames().isEmpty();
+    }
+
+    static DegradedRules degradedRules() {
+
+        final var ruleNames = ConcurrentHashMap.<String>newKeySet();
+
+        return new DegradedRules() {
+
+            @Override
+            public Set<String> ruleNames() {
+                return unmodifiableSet(ruleNames);
+            }
+
+            @Override
+            public void add(String ruleName) {
+                ruleNames.add(ruleName);
+            }
+        };
+    }
+
+    static Function<Context, Context> trackDegradedRules(DegradedRules degradedRules) {
+        return ctx -> ctx.put(DegradedRules.class, degradedRules);
+    }
+
+    static void reportDegradedRule(ContextView ctx) {
+        ctx.<DegradedRules>getOrEmpty(DegradedRules.class)
+                .ifPresent(degradedRules -> degradedRules.add(Rule.ruleName(ctx).orElse(UNNAMED_RULE)));
+    }
+}
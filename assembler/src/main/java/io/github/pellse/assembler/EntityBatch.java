@@ -0,0 +1,109 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.pellse.assembler;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static io.github.pellse.assembler.RuleContext.defaultTopLevelCollectionFactory;
+import static io.github.pellse.util.collection.CollectionUtils.toStream;
+import static io.github.pellse.util.collection.CollectionUtils.transform;
+import static io.github.pellse.util.collection.CollectionUtils.translate;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Collections.unmodifiableSet;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Immutable batch of top level entities shared by all the rules of an assembler, the ids and lookup tables derived
+ * from the batch are computed once per id resolver and then reused by every rule. Memoization is keyed by the identity
+ * of the id resolver {@link Function}, so rules only share results when they reuse the same resolver instance, two
+ * separate {@code Customer::customerId} method references are two different keys. Query functions receiving the batch
+ * must not modify it, any mutator throws {@link UnsupportedOperationException}.
+ */
+public final class EntityBatch<T> extends AbstractList<T> implements RandomAccess {
+
+    private record LookupTableKey(Function<?, ?> outerIdResolver, Function<?, ?> topLevelIdResolver) {
+    }
+
+    private final Object[] entities;
+
+    private final Map<Function<?, ?>, List<?>> idsByResolver = new ConcurrentHashMap<>();
+    private final Map<Function<?, ?>, Set<?>> idSetsByResolver = new ConcurrentHashMap<>();
+    private final Map<LookupTableKey, Map<?, ?>> lookupTables = new ConcurrentHashMap<>();
+
+    private EntityBatch(Object[] entities) {
+        this.entities = entities;
+    }
+
+    public static <T> EntityBatch<T> entityBatch(Iterable<T> entities) {
+
+        if (entities instanceof EntityBatch<T> entityBatch) {
+            return entityBatch;
+        }
+        return new EntityBatch<>(entities instanceof Collection<T> coll ? coll.toArray() : toStream(entities).toArray());
+    }
+
+    /**
+     * Returns {@code entities} itself when it is an {@link EntityBatch} and {@code collectionFactory} is the default
+     * {@link List} factory of {@link RuleContext}, a new collection from {@code collectionFactory} otherwise
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, TC extends Collection<T>> TC toTopLevelCollection(Iterable<T> entities, Supplier<TC> collectionFactory) {
+
+        if (entities instanceof EntityBatch<T> entityBatch && collectionFactory == defaultTopLevelCollectionFactory()) {
+            return (TC) entityBatch;
+        }
+        return translate(entities, collectionFactory);
+    }
+
+    public static <T, ID> List<ID> extractIds(Iterable<T> entities, Function<T, ID> idResolver) {
+        return entities instanceof EntityBatch<T> entityBatch ? entityBatch.ids(idResolver) : transform(entities, idResolver);
+    }
+
+    public static <T, ID> Set<ID> extractIdSet(Iterable<T> entities, Function<T, ID> idResolver) {
+        return entities instanceof EntityBatch<T> entityBatch ? entityBatch.idSet(idResolver) : new LinkedHashSet<>(transform(entities, idResolver));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <ID> List<ID> ids(Function<T, ID> idResolver) {
+        return (List<ID>) idsByResolver.computeIfAbsent(idResolver, __ -> transform(this, idResolver));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <ID> Set<ID> idSet(Function<T, ID> idResolver) {
+        return (Set<ID>) idSetsByResolver.computeIfAbsent(idResolver, __ -> unmodifiableSet(new LinkedHashSet<>(ids(idResolver))));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <ID, K> Map<ID, K> lookupTable(Function<T, ID> outerIdResolver, Function<T, K> topLevelIdResolver, Supplier<Map<ID, K>> mapSupplier) {
+
+        return (Map<ID, K>) lookupTables.computeIfAbsent(new LookupTableKey(outerIdResolver, topLevelIdResolver),
+                __ -> unmodifiableMap(stream().collect(toMap(outerIdResolver, topLevelIdResolver, (v1, v2) -> v2, mapSupplier))));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        return (T) entities[index];
+    }
+
+    @Override
+    public int size() {
+        return entities.length;
+    }
+}
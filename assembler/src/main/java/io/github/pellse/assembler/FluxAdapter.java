@@ -16,13 +16,21 @@
 
 package io.github.pellse.assembler;
 
+import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Scheduler;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
+import static io.github.pellse.util.reactive.ReactiveUtils.isInline;
+import static java.lang.Runtime.getRuntime;
 import static java.util.stream.Collectors.toList;
 import static reactor.core.publisher.Flux.zip;
 import static reactor.core.publisher.Mono.from;
@@ -30,6 +38,8 @@ import static reactor.core.scheduler.Schedulers.parallel;
 
 public interface FluxAdapter {
 
+    int DEFAULT_MAX_CONCURRENCY = getRuntime().availableProcessors();
+
     static <T, ID, R> AssemblerAdapter<T, ID, R> fluxAdapter() {
         return fluxAdapter(parallel());
     }
@@ -38,10 +48,80 @@ public interface FluxAdapter {
 
         return (topLevelEntitiesProvider, subQueryMapperBuilder, aggregateStreamBuilder) -> Flux.from(topLevelEntitiesProvider)
                 .collectList()
-                .flatMapMany(entities ->
-                        zip(subQueryMapperBuilder.apply(entities).map(publisher -> from(publisher).subscribeOn(scheduler)).collect(toList()),
-                                mapperResults -> aggregateStreamBuilder.apply(entities, toMapperResultList(mapperResults))))
-                .publishOn(scheduler) // from(publisher) above can itself switch to a different scheduler e.g. AutoCache
+                .flatMapMany(entities -> assembleBatch(entities, subQueryMapperBuilder, aggregateStreamBuilder, scheduler));
+    }
+
+    static <T, ID, R> AssemblerAdapter<T, ID, R> streamingFluxAdapter(int maxBatchSize) {
+        return streamingFluxAdapter(maxBatchSize, null);
+    }
+
+    static <T, ID, R> AssemblerAdapter<T, ID, R> streamingFluxAdapter(int maxBatchSize, Duration maxBatchTime) {
+        return streamingFluxAdapter(maxBatchSize, maxBatchTime, DEFAULT_MAX_CONCURRENCY);
+    }
+
+    static <T, ID, R> AssemblerAdapter<T, ID, R> streamingFluxAdapter(int maxBatchSize, Duration maxBatchTime, int maxConcurrency) {
+        return streamingFluxAdapter(maxBatchSize, maxBatchTime, maxConcurrency, parallel());
+    }
+
+    /**
+     * Assembles up to {@code maxConcurrency} batches of at most {@code maxBatchSize} top level entities at once,
+     * preserving order and only requesting new batches from upstream when downstream has demand.
+     */
+    static <T, ID, R> AssemblerAdapter<T, ID, R> streamingFluxAdapter(int maxBatchSize, Duration maxBatchTime, int maxConcurrency, Scheduler scheduler) {
+
+        return (topLevelEntitiesProvider, subQueryMapperBuilder, aggregateStreamBuilder) -> Flux.from(topLevelEntitiesProvider)
+                .transform(batch(maxBatchSize, maxBatchTime))
+                .flatMapSequential(entities -> assembleBatch(entities, subQueryMapperBuilder, aggregateStreamBuilder, scheduler), maxConcurrency);
+    }
+
+    static <T, ID, R> AssemblerAdapter<T, ID, R> unorderedStreamingFluxAdapter(int maxBatchSize) {
+        return unorderedStreamingFluxAdapter(maxBatchSize, null);
+    }
+
+    static <T, ID, R> AssemblerAdapter<T, ID, R> unorderedStreamingFluxAdapter(int maxBatchSize, Duration maxBatchTime) {
+        return unorderedStreamingFluxAdapter(maxBatchSize, maxBatchTime, DEFAULT_MAX_CONCURRENCY);
+    }
+
+    static <T, ID, R> AssemblerAdapter<T, ID, R> unorderedStreamingFluxAdapter(int maxBatchSize, Duration maxBatchTime, int maxConcurrency) {
+        return unorderedStreamingFluxAdapter(maxBatchSize, maxBatchTime, maxConcurrency, parallel());
+    }
+
+    /**
+     * Same as {@link #streamingFluxAdapter(int, Duration, int, Scheduler)} but emits the results of each batch as soon as
+     * all its rules complete, without waiting for slower batches received earlier, the order within a batch is preserved.
+     */
+    static <T, ID, R> AssemblerAdapter<T, ID, R> unorderedStreamingFluxAdapter(int maxBatchSize, Duration maxBatchTime, int maxConcurrency, Scheduler scheduler) {
+
+        return (topLevelEntitiesProvider, subQueryMapperBuilder, aggregateStreamBuilder) -> Flux.from(topLevelEntitiesProvider)
+                .transform(batch(maxBatchSize, maxBatchTime))
+                .flatMap(entities -> assembleBatch(entities, subQueryMapperBuilder, aggregateStreamBuilder, scheduler), maxConcurrency);
+    }
+
+    private static <T> Function<Flux<T>, Flux<List<T>>> batch(int maxBatchSize, Duration maxBatchTime) {
+        return flux -> maxBatchTime != null ? flux.bufferTimeout(maxBatchSize, maxBatchTime, true) : flux.buffer(maxBatchSize);
+    }
+
+    private static <T, ID, R> Flux<R> assembleBatch(
+            List<T> entities,
+            Function<Iterable<T>, Stream<Publisher<? extends Map<ID, ?>>>> subQueryMapperBuilder,
+            BiFunction<Iterable<T>, List<Map<ID, ?>>, Stream<R>> aggregateStreamBuilder,
+            Scheduler scheduler) {
+
+        final var subQueries = subQueryMapperBuilder.apply(entities).toList();
+        final var sources = new ArrayList<Mono<? extends Map<ID, ?>>>(subQueries.size());
+
+        // Inline sources complete on the subscribing thread, only asynchronous sources are worth a thread hop,
+        // the tags of each publisher are only scanned once per batch
+        boolean allInline = true;
+        for (var publisher : subQueries) {
+            final boolean inline = isInline(publisher);
+            sources.add(inline ? from(publisher) : from(publisher).subscribeOn(scheduler));
+            allInline &= inline;
+        }
+
+        final var results = zip(sources, mapperResults -> aggregateStreamBuilder.apply(entities, toMapperResultList(mapperResults)));
+
+        return (allInline ? results : results.publishOn(scheduler)) // from(publisher) above can itself switch to a different scheduler e.g. AutoCache
                 .flatMapSequential(Flux::fromStream);
     }
 
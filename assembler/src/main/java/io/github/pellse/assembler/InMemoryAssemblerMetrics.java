@@ -0,0 +1,115 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.pellse.assembler;
+
+import io.github.pellse.util.metrics.LongHistogram;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * {@link AssemblerMetrics} aggregating everything in memory with lock free counters and histograms, e.g. to be
+ * periodically exported or inspected in tests
+ */
+public class InMemoryAssemblerMetrics implements AssemblerMetrics {
+
+    private final LongHistogram batchSizes = new LongHistogram();
+    private final Map<String, RuleMetrics> ruleMetrics = new ConcurrentHashMap<>();
+
+    public static class RuleMetrics {
+
+        private final LongHistogram queryLatencies = new LongHistogram();
+        private final LongAdder requestedIds = new LongAdder();
+        private final LongAdder returnedIds = new LongAdder();
+        private final LongAdder defaultValues = new LongAdder();
+        private final LongAdder cacheHits = new LongAdder();
+        private final LongAdder cacheMisses = new LongAdder();
+        private final LongAdder cacheInFlight = new LongAdder();
+
+        public LongHistogram queryLatencies() {
+            return queryLatencies;
+        }
+
+        public long requestedIds() {
+            return requestedIds.sum();
+        }
+
+        public long returnedIds() {
+            return returnedIds.sum();
+        }
+
+        public long defaultValues() {
+            return defaultValues.sum();
+        }
+
+        public long cacheHits() {
+            return cacheHits.sum();
+        }
+
+        public long cacheMisses() {
+            return cacheMisses.sum();
+        }
+
+        public long cacheInFlight() {
+            return cacheInFlight.sum();
+        }
+    }
+
+    public LongHistogram batchSizes() {
+        return batchSizes;
+    }
+
+    public Map<String, RuleMetrics> ruleMetrics() {
+        return unmodifiableMap(ruleMetrics);
+    }
+
+    public RuleMetrics ruleMetrics(String ruleName) {
+        return ruleMetrics.computeIfAbsent(ruleName, __ -> new RuleMetrics());
+    }
+
+    @Override
+    public void onBatch(int batchSize) {
+        batchSizes.record(batchSize);
+    }
+
+    @Override
+    public void onRuleQuery(String ruleName, long latencyNanos, int requestedIds, int returnedIds) {
+
+        final var metrics = ruleMetrics(ruleName);
+
+        metrics.queryLatencies.record(latencyNanos);
+        metrics.requestedIds.add(requestedIds);
+        metrics.returnedIds.add(returnedIds);
+    }
+
+    @Override
+    public void onDefaultValues(String ruleName, int defaultValueCount) {
+        ruleMetrics(ruleName).defaultValues.add(defaultValueCount);
+    }
+
+    @Override
+    public void onCacheAccess(String ruleName, int hitCount, int missCount, int inFlightCount) {
+
+        final var metrics = ruleMetrics(ruleName);
+
+        metrics.cacheHits.add(hitCount);
+        metrics.cacheMisses.add(missCount);
+        metrics.cacheInFlight.add(inFlightCount);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.pellse.assembler;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Aggregation function built by the typed {@code withRules()} overloads of {@link AssemblerBuilder.WithRulesBuilder},
+ * also carrying a join specialized for the number of rules so that builders created by {@link AssemblerBuilder} skip
+ * the intermediate {@code Object[]}. Any other {@code WithRulesBuilder} implementation simply calls {@link #apply}.
+ */
+record JoinedAggregationFunction<T, K, R>(
+        BiFunction<T, Object[], R> aggregationFunction,
+        JoinFunction<T, K, R> joinFunction) implements BiFunction<T, Object[], R> {
+
+    @FunctionalInterface
+    interface JoinFunction<T, K, R> extends Function<Function<T, K>, Function<List<Map<K, ?>>, Function<T, R>>> {
+    }
+
+    @Override
+    public R apply(T topLevelEntity, Object[] subEntities) {
+        return aggregationFunction.apply(topLevelEntity, subEntities);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.pellse.assembler;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+class LatencyTracker {
+
+    static final int DEFAULT_WINDOW_SIZE = 256;
+    static final int MIN_SAMPLES = 16;
+    static final int REFRESH_INTERVAL = 16;
+
+    private static final long UNWRITTEN = -1;
+
+    private record Snapshot(long sampleCount, long[] sortedSamples) {
+    }
+
+    private final AtomicLongArray samples;
+    private final AtomicLong sampleCount = new AtomicLong();
+
+    private volatile Snapshot snapshot;
+
+    LatencyTracker() {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    LatencyTracker(int windowSize) {
+        samples = new AtomicLongArray(windowSize);
+        for (int i = 0; i < windowSize; i++) {
+            samples.set(i, UNWRITTEN);
+        }
+    }
+
+    void record(long latencyNanos) {
+        samples.set((int) (sampleCount.getAndIncrement() % samples.length()), Math.max(latencyNanos, 0));
+    }
+
+    /**
+     * Sorted samples are cached and only refreshed every {@link #REFRESH_INTERVAL} recorded samples, slots reserved
+     * by {@link #record(long)} but not written yet are skipped
+     */
+    Duration percentile(double percentile, Duration defaultValue) {
+
+        final long count = sampleCount.get();
+
+        var currentSnapshot = snapshot;
+        if (currentSnapshot == null || count - currentSnapshot.sampleCount() >= REFRESH_INTERVAL) {
+            currentSnapshot = snapshot = takeSnapshot(count);
+        }
+
+        final var sortedSamples = currentSnapshot.sortedSamples();
+        if (sortedSamples.length < MIN_SAMPLES) {
+            return defaultValue;
+        }
+
+        return Duration.ofNanos(sortedSamples[Math.max((int) Math.ceil(percentile * sortedSamples.length) - 1, 0)]);
+    }
+
+    private Snapshot takeSnapshot(long count) {
+
+        final int size = (int) Math.min(count, samples.length());
+
+        final var sortedSamples = new long[size];
+        int written = 0;
+        for (int i = 0; i < size; i++) {
+            final long sample = samples.get(i);
+            if (sample != UNWRITTEN) {
+                sortedSamples[written++] = sample;
+            }
+        }
+
+        final var snapshotSamples = written == size ? sortedSamples : Arrays.copyOf(sortedSamples, written);
+        Arrays.sort(snapshotSamples);
+
+        return new Snapshot(count, snapshotSamples);
+    }
+}
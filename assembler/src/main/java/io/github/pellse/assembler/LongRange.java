@@ -0,0 +1,72 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.pellse.assembler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inclusive range of {@code long} correlation ids, e.g. to issue a {@code BETWEEN from AND to} scan
+ * instead of listing every id of a dense run in an {@code IN} clause
+ */
+public record LongRange(long from, long to) {
+
+    public LongRange {
+        if (from > to) {
+            throw new IllegalArgumentException("from " + from + " cannot be greater than to " + to);
+        }
+    }
+
+    public boolean isSingleValue() {
+        return from == to;
+    }
+
+    public long size() {
+        return to - from + 1;
+    }
+
+    public boolean contains(long id) {
+        return id >= from && id <= to;
+    }
+
+    /**
+     * @param sortedIds Ids sorted in ascending order, duplicates are tolerated
+     * @return The minimal list of ranges covering {@code sortedIds}, consecutive ids being merged into a single range
+     */
+    public static List<LongRange> toLongRanges(List<Long> sortedIds) {
+
+        final var ranges = new ArrayList<LongRange>();
+        if (sortedIds.isEmpty()) {
+            return ranges;
+        }
+
+        long from = sortedIds.getFirst();
+        long to = from;
+
+        for (long id : sortedIds) {
+            if (id > to + 1) {
+                ranges.add(new LongRange(from, to));
+                from = id;
+            }
+            to = Math.max(to, id);
+        }
+        ranges.add(new LongRange(from, to));
+
+        return ranges;
+    }
+}
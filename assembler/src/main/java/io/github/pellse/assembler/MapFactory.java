@@ -16,6 +16,9 @@
 
 package io.github.pellse.assembler;
 
+import io.github.pellse.util.collection.LongHashMap;
+import io.github.pellse.util.collection.SortedArrayMap;
+
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
@@ -25,4 +28,12 @@ public interface MapFactory<ID, R> extends Function<Integer, Map<ID, R>> {
     static <ID, R> MapFactory<ID, R> defaultMapFactory() {
         return HashMap::newHashMap;
     }
+
+    static <R> MapFactory<Long, R> longMapFactory() {
+        return LongHashMap::new;
+    }
+
+    static <ID extends Comparable<? super ID>, R> MapFactory<ID, R> sortedMapFactory() {
+        return SortedArrayMap::new;
+    }
 }
\ No newline at end of file
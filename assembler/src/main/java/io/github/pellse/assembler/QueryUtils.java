@@ -17,6 +17,7 @@
 package io.github.pellse.assembler;
 
 import io.github.pellse.util.collection.CollectionUtils;
+import io.github.pellse.util.collection.DefaultValueMap;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -25,11 +26,16 @@ import java.util.*;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
+import static io.github.pellse.assembler.AssemblerMetrics.metrics;
+import static io.github.pellse.assembler.DegradedRules.UNNAMED_RULE;
+import static io.github.pellse.assembler.EntityBatch.extractIdSet;
+import static io.github.pellse.assembler.EntityBatch.toTopLevelCollection;
+import static io.github.pellse.assembler.Rule.ruleName;
 import static io.github.pellse.assembler.RuleMapperSource.nullToEmptySource;
 import static io.github.pellse.util.ObjectUtils.isSafeEqual;
 import static io.github.pellse.util.collection.CollectionUtils.*;
+import static java.lang.System.nanoTime;
 import static java.util.Objects.*;
-import static java.util.function.Predicate.not;
 import static reactor.core.publisher.Flux.fromIterable;
 
 public interface QueryUtils {
@@ -41,14 +47,75 @@ public interface QueryUtils {
         final var queryFunction = nullToEmptySource(ruleMapperSource).apply(ctx);
 
         return entityList -> {
-            var entities = translate(entityList, ctx.topLevelCollectionFactory());
+            var entities = toTopLevelCollection(entityList, ctx.topLevelCollectionFactory());
 
-            return safeApply(entities, queryFunction)
-                    .collect(ctx.mapCollector().apply(entities.size()))
+            return query(entities, queryFunction, ctx)
                     .map(map -> toResultMap(entities, map, ctx.outerIdResolver(), ctx.defaultResultProvider()));
         };
     }
 
+    /**
+     * Same as {@link #buildQueryFunction(RuleMapperSource, RuleMapperContext)} but also reports the query latency, the
+     * number of ids requested vs. returned and the number of default values to the {@link AssemblerMetrics} of the
+     * subscriber context, if any, and records a {@link RuleQueryEvent} when enabled in a flight recording
+     */
+    static <T, TC extends Collection<T>, K, ID, EID, R, RRC, CTX extends RuleMapperContext<T, TC, K, ID, EID, R, RRC>> Function<Iterable<T>, Mono<Map<ID, RRC>>> buildMeteredQueryFunction(
+            RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX> ruleMapperSource,
+            CTX ctx) {
+
+        final var queryFunction = nullToEmptySource(ruleMapperSource).apply(ctx);
+
+        return entityList -> Mono.deferContextual(reactorContext -> {
+            final var entities = toTopLevelCollection(entityList, ctx.topLevelCollectionFactory());
+
+            final var metrics = metrics(reactorContext).orElse(null);
+            final var event = new RuleQueryEvent();
+
+            if (metrics == null && !event.isEnabled()) {
+                return query(entities, queryFunction, ctx)
+                        .map(map -> toResultMap(entities, map, ctx.outerIdResolver(), ctx.defaultResultProvider()));
+            }
+
+            final var ruleName = ruleName(reactorContext).orElse(UNNAMED_RULE);
+            final long start = nanoTime();
+            event.begin();
+
+            return query(entities, queryFunction, ctx)
+                    .map(map -> {
+                        final var resultMap = toResultMap(entities, map, ctx.outerIdResolver(), ctx.defaultResultProvider());
+
+                        event.commit(ruleName, entities.size(), map.size());
+                        if (metrics == null) {
+                            return resultMap;
+                        }
+
+                        metrics.onRuleQuery(ruleName, nanoTime() - start, entities.size(), map.size());
+
+                        final int defaultValueCount = resultMap == map ? 0 : countMissingIds(entities, map, ctx.outerIdResolver());
+                        if (defaultValueCount > 0) {
+                            metrics.onDefaultValues(ruleName, defaultValueCount);
+                        }
+                        return resultMap;
+                    });
+        });
+    }
+
+    private static <T, ID> int countMissingIds(Collection<T> entities, Map<ID, ?> map, Function<T, ID> idResolver) {
+
+        return (int) extractIdSet(entities, idResolver).stream()
+                .filter(id -> !map.containsKey(id))
+                .count();
+    }
+
+    private static <T, TC extends Collection<T>, K, ID, EID, R, RRC> Mono<Map<ID, RRC>> query(
+            TC entities,
+            Function<TC, Publisher<R>> queryFunction,
+            RuleMapperContext<T, TC, K, ID, EID, R, RRC> ctx) {
+
+        return safeApply(entities, queryFunction)
+                .collect(ctx.mapCollector().apply(entities.size()));
+    }
+
     static <T, TC extends Collection<T>, R> Function<TC, Publisher<R>> toPublisher(Function<TC, Iterable<R>> queryFunction) {
         return entities -> fromIterable(queryFunction.apply(entities));
     }
@@ -71,23 +138,12 @@ public interface QueryUtils {
 
         return isSafeEqual(map, Map::size, entities, Collection::size)
                 ? map
-                : initializeResultMap(transform(entities, topLevelIdResolver), map, defaultResultProvider);
+                : initializeResultMap(extractIdSet(entities, topLevelIdResolver), map, defaultResultProvider);
     }
 
-    static <ID, RRC> Map<ID, RRC> initializeResultMap(Collection<ID> ids, Map<ID, RRC> resultMap, Function<ID, RRC> defaultResultProvider) {
-        final Function<ID, RRC> resultProvider = requireNonNullElse(defaultResultProvider, id -> null);
-
-        final Map<ID, RRC> resultLinkedHashMap = toLinkedHashMap(resultMap);
-        final Set<ID> idsFromQueryResult = resultLinkedHashMap.keySet();
-        final Map<ID, RRC> resultMapCopy = new LinkedHashMap<>(resultLinkedHashMap);
-
-        // defaultResultProvider can provide a null value, so we cannot use a Collector here
-        // as it would throw a NullPointerException
-        ids.stream()
-                .filter(not(idsFromQueryResult::contains))
-                .forEach(id -> resultMapCopy.put(id, resultProvider.apply(id)));
-
-        return resultMapCopy;
+    static <ID, RRC> Map<ID, RRC> initializeResultMap(Set<ID> ids, Map<ID, RRC> resultMap, Function<ID, RRC> defaultResultProvider) {
+        // defaultResultProvider can provide a null value, missing ids are then explicitly mapped to null
+        return new DefaultValueMap<>(resultMap, ids, requireNonNullElse(defaultResultProvider, id -> null));
     }
 
     static <ID, R> Supplier<Map<ID, R>> toMapSupplier(int initialCapacity, MapFactory<ID, R> mapFactory) {
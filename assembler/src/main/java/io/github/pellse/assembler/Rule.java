@@ -18,14 +18,22 @@ package io.github.pellse.assembler;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
 
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
+import static io.github.pellse.assembler.LongIdResolver.longIdResolver;
+import static io.github.pellse.assembler.MapFactory.longMapFactory;
+import static io.github.pellse.assembler.RuleContext.defaultTopLevelCollectionFactory;
 import static io.github.pellse.assembler.RuleContext.ruleContext;
 import static io.github.pellse.util.collection.CollectionUtils.size;
 import static io.github.pellse.util.collection.CollectionUtils.toStream;
@@ -37,6 +45,10 @@ import static reactor.core.publisher.Flux.fromIterable;
 @FunctionalInterface
 public interface Rule<T, K, RRC> extends Function<Function<T, K>, Function<Iterable<T>, Mono<Map<K, RRC>>>> {
 
+    String RULE_NAME_KEY = Rule.class.getName() + ".name";
+
+    String SELECTED_RULES_KEY = Rule.class.getName() + ".selectedRules";
+
     @FunctionalInterface
     interface BatchRule<T, RRC> {
 
@@ -135,6 +147,57 @@ public interface Rule<T, K, RRC> extends Function<Function<T, K>, Function<Itera
         return ruleBuilder(ruleContext(innerIdResolver, outerIdResolver, topLevelCollectionFactory, mapFactory), mapper);
     }
 
+    static <T, R, RRC> Rule<T, Long, RRC> longRule(
+            ToLongFunction<R> correlationIdResolver,
+            RuleMapper<T, List<T>, Long, Long, R, RRC> mapper) {
+
+        return ruleBuilder(ruleContext(longIdResolver(correlationIdResolver), defaultTopLevelCollectionFactory(), longMapFactory()), mapper);
+    }
+
+    static <T, TC extends Collection<T>, R, RRC> Rule<T, Long, RRC> longRule(
+            ToLongFunction<R> correlationIdResolver,
+            Supplier<TC> topLevelCollectionFactory,
+            RuleMapper<T, TC, Long, Long, R, RRC> mapper) {
+
+        return ruleBuilder(ruleContext(longIdResolver(correlationIdResolver), topLevelCollectionFactory, longMapFactory()), mapper);
+    }
+
+    static <T, K, R, RRC> Rule<T, K, RRC> longRule(
+            ToLongFunction<R> innerIdResolver,
+            ToLongFunction<T> outerIdResolver,
+            RuleMapper<T, List<T>, K, Long, R, RRC> mapper) {
+
+        return ruleBuilder(ruleContext(longIdResolver(innerIdResolver), longIdResolver(outerIdResolver), defaultTopLevelCollectionFactory(), longMapFactory()), mapper);
+    }
+
+    static <T, K, RRC> Rule<T, K, RRC> named(String name, Rule<T, K, RRC> rule) {
+
+        return topLevelIdResolver -> {
+            final var queryFunction = rule.apply(topLevelIdResolver);
+            return entities -> queryFunction.apply(entities).contextWrite(ctx -> ctx.put(RULE_NAME_KEY, name));
+        };
+    }
+
+    static Optional<String> ruleName(ContextView ctx) {
+        return ctx.getOrEmpty(RULE_NAME_KEY);
+    }
+
+    static Function<Context, Context> selectRules(Set<String> ruleNames) {
+        return ctx -> ctx.put(SELECTED_RULES_KEY, Set.copyOf(ruleNames));
+    }
+
+    static boolean isRuleSelected(ContextView ctx) {
+
+        final var ruleName = ruleName(ctx);
+        if (ruleName.isEmpty()) {
+            return true;
+        }
+
+        return ctx.<Set<String>>getOrEmpty(SELECTED_RULES_KEY)
+                .map(selectedRules -> selectedRules.contains(ruleName.get()))
+                .orElse(true);
+    }
+
     static <T, K> BatchRuleBuilder<T, K> withIdResolver(Function<T, K> idResolver) {
 
         return new BatchRuleBuilder<>() {
@@ -26,6 +26,8 @@ import static io.github.pellse.assembler.MapFactory.defaultMapFactory;
 
 public interface RuleContext<T, TC extends Collection<T>, K, ID, R, RRC> {
 
+    Supplier<List<Object>> DEFAULT_TOP_LEVEL_COLLECTION_FACTORY = ArrayList::new;
+
     Function<T, K> topLevelIdResolver();
 
     Function<R, ID> innerIdResolver();
@@ -46,7 +48,7 @@ public interface RuleContext<T, TC extends Collection<T>, K, ID, R, RRC> {
 
     static <T, K, R, RRC> Function<Function<T, K>, RuleContext<T, List<T>, K, K, R, RRC>> ruleContext(
             Function<R, K> correlationIdResolver) {
-        return ruleContext(correlationIdResolver, () -> new ArrayList<>());
+        return ruleContext(correlationIdResolver, defaultTopLevelCollectionFactory());
     }
 
     static <T, TC extends Collection<T>, K, R, RRC> Function<Function<T, K>, RuleContext<T, TC, K, K, R, RRC>> ruleContext(
@@ -67,7 +69,7 @@ public interface RuleContext<T, TC extends Collection<T>, K, ID, R, RRC> {
     static <T, K, ID, R, RRC> Function<Function<T, K>, RuleContext<T, List<T>, K, ID, R, RRC>> ruleContext(
             Function<R, ID> innerIdResolver,
             Function<T, ID> outerIdResolver) {
-        return ruleContext(innerIdResolver, outerIdResolver, ArrayList::new);
+        return ruleContext(innerIdResolver, outerIdResolver, defaultTopLevelCollectionFactory());
     }
 
     static <T, TC extends Collection<T>, K, ID, R, RRC> Function<Function<T, K>, RuleContext<T, TC, K, ID, R, RRC>> ruleContext(
@@ -86,4 +88,9 @@ public interface RuleContext<T, TC extends Collection<T>, K, ID, R, RRC> {
 
         return topLevelIdResolver -> new DefaultRuleContext<>(topLevelIdResolver, innerIdResolver, outerIdResolver, topLevelCollectionFactory, mapFactory);
     }
+
+    @SuppressWarnings("unchecked")
+    static <T> Supplier<List<T>> defaultTopLevelCollectionFactory() {
+        return (Supplier<List<T>>) (Supplier<?>) DEFAULT_TOP_LEVEL_COLLECTION_FACTORY;
+    }
 }
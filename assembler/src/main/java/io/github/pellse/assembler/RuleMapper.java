@@ -17,7 +17,10 @@
 package io.github.pellse.assembler;
 
 import io.github.pellse.assembler.RuleMapperContext.OneToManyContext;
+import io.github.pellse.assembler.RuleContext.DefaultRuleContext;
 import io.github.pellse.assembler.RuleMapperContext.OneToOneContext;
+import io.github.pellse.util.collection.LongHashMap;
+import io.github.pellse.util.collection.SortedArrayMap;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Mono;
 
@@ -25,11 +28,15 @@ import java.util.*;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
+import static io.github.pellse.assembler.MapFactory.sortedMapFactory;
 import static io.github.pellse.assembler.QueryUtils.*;
+import static io.github.pellse.assembler.Rule.isRuleSelected;
 import static io.github.pellse.assembler.RuleMapperSource.*;
 import static io.github.pellse.util.collection.CollectionUtils.*;
+import static io.github.pellse.util.reactive.ReactiveUtils.inline;
 import static java.util.Comparator.comparing;
 import static java.util.HashMap.newHashMap;
+import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.toMap;
 
 /**
@@ -70,6 +77,35 @@ public interface RuleMapper<T, TC extends Collection<T>, K, ID, R, RRC>
                 ctx -> new OneToOneContext<>(ctx, defaultResultProvider));
     }
 
+    static <T, TC extends Collection<T>, K, ID extends Comparable<? super ID>, R> RuleMapper<T, TC, K, ID, R, R> oneToOneSorted(Function<TC, Publisher<R>> queryFunction) {
+        return oneToOneSorted(queryFunction, id -> null);
+    }
+
+    static <T, TC extends Collection<T>, K, ID extends Comparable<? super ID>, R> RuleMapper<T, TC, K, ID, R, R> oneToOneSorted(RuleMapperSource<T, TC, K, ID, ID, R, R, OneToOneContext<T, TC, K, ID, R>> ruleMapperSource) {
+        return oneToOneSorted(ruleMapperSource, id -> null);
+    }
+
+    static <T, TC extends Collection<T>, K, ID extends Comparable<? super ID>, R> RuleMapper<T, TC, K, ID, R, R> oneToOneSorted(
+            Function<TC, Publisher<R>> queryFunction,
+            Function<ID, R> defaultResultProvider) {
+
+        return oneToOneSorted(RuleMapperSource.<T, TC, K, ID, ID, R, R, OneToOneContext<T, TC, K, ID, R>>toRuleMapperSource(queryFunction), defaultResultProvider);
+    }
+
+    /**
+     * Same as {@link #oneToOne(RuleMapperSource, Function)} but assumes both the top level entities and the results
+     * of {@code ruleMapperSource} are sorted by correlation id, results are merged into a {@link SortedArrayMap}
+     * instead of being hashed, transparently falling back to hashing if the results turn out not to be sorted.
+     */
+    static <T, TC extends Collection<T>, K, ID extends Comparable<? super ID>, R> RuleMapper<T, TC, K, ID, R, R> oneToOneSorted(
+            RuleMapperSource<T, TC, K, ID, ID, R, R, OneToOneContext<T, TC, K, ID, R>> ruleMapperSource,
+            Function<ID, R> defaultResultProvider) {
+
+        return createRuleMapper(
+                ruleMapperSource,
+                ctx -> new OneToOneContext<>(sorted(ctx), defaultResultProvider));
+    }
+
     static <T, TC extends Collection<T>, K, ID, EID extends Comparable<EID>, R> RuleMapper<T, TC, K, ID, R, List<R>> oneToMany(Function<R, EID> idResolver) {
         return oneToMany(idResolver, emptySource(), ArrayList::new);
     }
@@ -102,6 +138,43 @@ public interface RuleMapper<T, TC extends Collection<T>, K, ID, R, RRC>
         return oneToMany(idResolver, ruleMapperSource, HashSet::new);
     }
 
+    static <T, TC extends Collection<T>, K, ID extends Comparable<? super ID>, EID extends Comparable<EID>, R> RuleMapper<T, TC, K, ID, R, List<R>> oneToManySorted(
+            Function<R, EID> idResolver,
+            Function<TC, Publisher<R>> queryFunction) {
+
+        return oneToManySorted(idResolver, RuleMapperSource.<T, TC, K, ID, EID, R, List<R>, OneToManyContext<T, TC, K, ID, EID, R, List<R>>>toRuleMapperSource(queryFunction));
+    }
+
+    /**
+     * Same as {@link #oneToMany(Function, RuleMapperSource)} but assumes sorted inputs, see {@link #oneToOneSorted(RuleMapperSource, Function)}
+     */
+    static <T, TC extends Collection<T>, K, ID extends Comparable<? super ID>, EID extends Comparable<EID>, R> RuleMapper<T, TC, K, ID, R, List<R>> oneToManySorted(
+            Function<R, EID> idResolver,
+            RuleMapperSource<T, TC, K, ID, EID, R, List<R>, OneToManyContext<T, TC, K, ID, EID, R, List<R>>> ruleMapperSource) {
+
+        return createRuleMapper(
+                ruleMapperSource,
+                ctx -> new OneToManyContext<>(sorted(ctx), idResolver, comparing(idResolver), ArrayList::new));
+    }
+
+    static <T, TC extends Collection<T>, K, ID, EID extends Comparable<EID>, R> RuleMapper<T, TC, K, ID, R, List<R>> oneToManyCompact(
+            Function<R, EID> idResolver,
+            Function<TC, Publisher<R>> queryFunction) {
+
+        return oneToManyCompact(idResolver, toRuleMapperSource(queryFunction));
+    }
+
+    /**
+     * Same as {@link #oneToMany(Function, RuleMapperSource)} but each collection of children is stored as an exact size
+     * immutable array backed {@link List}, both in the assembled results and in the values held by {@code cachedMany()}.
+     */
+    static <T, TC extends Collection<T>, K, ID, EID extends Comparable<EID>, R> RuleMapper<T, TC, K, ID, R, List<R>> oneToManyCompact(
+            Function<R, EID> idResolver,
+            RuleMapperSource<T, TC, K, ID, EID, R, List<R>, OneToManyContext<T, TC, K, ID, EID, R, List<R>>> ruleMapperSource) {
+
+        return oneToMany(idResolver, ruleMapperSource, ArrayList::new, List::copyOf);
+    }
+
     static <T, TC extends Collection<T>, K, ID, EID extends Comparable<EID>, R, RC extends Collection<R>> RuleMapper<T, TC, K, ID, R, RC> oneToMany(
             Function<R, EID> idResolver,
             Function<TC, Publisher<R>> queryFunction,
@@ -115,9 +188,18 @@ public interface RuleMapper<T, TC extends Collection<T>, K, ID, R, RRC>
             RuleMapperSource<T, TC, K, ID, EID, R, RC, OneToManyContext<T, TC, K, ID, EID, R, RC>> ruleMapperSource,
             Supplier<RC> collectionFactory) {
 
+        return oneToMany(idResolver, ruleMapperSource, collectionFactory, identity());
+    }
+
+    static <T, TC extends Collection<T>, K, ID, EID extends Comparable<EID>, R, RC extends Collection<R>> RuleMapper<T, TC, K, ID, R, RC> oneToMany(
+            Function<R, EID> idResolver,
+            RuleMapperSource<T, TC, K, ID, EID, R, RC, OneToManyContext<T, TC, K, ID, EID, R, RC>> ruleMapperSource,
+            Supplier<RC> collectionFactory,
+            Function<RC, RC> collectionFinisher) {
+
         return createRuleMapper(
                 ruleMapperSource,
-                ctx -> new OneToManyContext<>(ctx, idResolver, comparing(idResolver), collectionFactory));
+                ctx -> new OneToManyContext<>(ctx, idResolver, comparing(idResolver), collectionFactory, collectionFinisher));
     }
 
 
@@ -126,20 +208,49 @@ public interface RuleMapper<T, TC extends Collection<T>, K, ID, R, RRC>
             Function<RuleContext<T, TC, K, ID, R, RRC>, CTX> ruleMapperContextProvider) {
 
         return ctx -> {
-            final var queryFunction = buildQueryFunction(ruleMapperSource, ruleMapperContextProvider.apply(ctx));
-            return entities -> runQueryFunction(queryFunction, entities, ctx);
+            final var ruleMapperContext = ruleMapperContextProvider.apply(ctx);
+
+            final var queryFunction = buildMeteredQueryFunction(ruleMapperSource, ruleMapperContext);
+            final var defaultQueryFunction = buildQueryFunction(RuleMapperSource.<T, TC, K, ID, EID, R, RRC, CTX>emptySource(), ruleMapperContext);
+            final var isInline = isInline(ruleMapperSource);
+
+            return entities -> {
+                final var results = Mono.deferContextual(reactorContext ->
+                        runQueryFunction(isRuleSelected(reactorContext) ? queryFunction : defaultQueryFunction, entities, ctx));
+
+                return isInline ? inline(results) : results;
+            };
         };
     }
 
+    private static <T, TC extends Collection<T>, K, ID extends Comparable<? super ID>, R, RRC> RuleContext<T, TC, K, ID, R, RRC> sorted(RuleContext<T, TC, K, ID, R, RRC> ctx) {
+        return new DefaultRuleContext<>(ctx.topLevelIdResolver(), ctx.innerIdResolver(), ctx.outerIdResolver(), ctx.topLevelCollectionFactory(), sortedMapFactory());
+    }
+
     @SuppressWarnings("unchecked")
     private static <T, TC extends Collection<T>, K, ID, R, RRC> Mono<Map<K, RRC>> runQueryFunction(Function<Iterable<T>, Mono<Map<ID, RRC>>> queryFunction, Iterable<T> entities, RuleContext<T, TC, K, ID, R, RRC> ctx) {
 
-        final Map<ID, K> lookupTable = toStream(entities)
-                .collect(toMap(ctx.outerIdResolver(), ctx.topLevelIdResolver(), (v1, v2) -> v2, () -> newHashMap(size(entities))));
-
-        final Function<Map<ID, RRC>, Map<K, RRC>> mappingFunction = ctx.topLevelIdResolver() == ctx.outerIdResolver() ? map -> (Map<K, RRC>) map : map -> transformMapKeys(map, lookupTable::get);
+        if (ctx.topLevelIdResolver() == ctx.outerIdResolver()) {
+            return queryFunction.apply(entities)
+                    .map(map -> (Map<K, RRC>) map);
+        }
 
         return queryFunction.apply(entities)
-                .map(mappingFunction);
+                .map(map -> transformMapKeys(map, lookupTable(entities, ctx)::get));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, TC extends Collection<T>, K, ID, R, RRC> Map<ID, K> lookupTable(Iterable<T> entities, RuleContext<T, TC, K, ID, R, RRC> ctx) {
+
+        final Supplier<Map<ID, K>> mapSupplier = ctx.outerIdResolver() instanceof LongIdResolver<?>
+                ? () -> (Map<ID, K>) new LongHashMap<K>(size(entities))
+                : () -> newHashMap(size(entities));
+
+        if (entities instanceof EntityBatch<T> entityBatch) {
+            return entityBatch.lookupTable(ctx.outerIdResolver(), ctx.topLevelIdResolver(), mapSupplier);
+        }
+
+        return toStream(entities)
+                .collect(toMap(ctx.outerIdResolver(), ctx.topLevelIdResolver(), (v1, v2) -> v2, mapSupplier));
     }
 }
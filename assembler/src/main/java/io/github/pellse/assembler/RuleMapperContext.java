@@ -100,15 +100,31 @@ public sealed interface RuleMapperContext<T, TC extends Collection<T>, K, ID, EI
             Function<R, EID> idResolver,
             Comparator<R> idComparator,
             Supplier<RC> collectionFactory,
+            Function<RC, RC> collectionFinisher,
             Class<RC> collectionType) implements RuleMapperContext<T, TC, K, ID, EID, R, RC> {
 
-        @SuppressWarnings("unchecked")
         public OneToManyContext(
                 RuleContext<T, TC, K, ID, R, RC> ruleContext,
                 Function<R, EID> idResolver,
                 Comparator<R> idComparator,
                 Supplier<RC> collectionFactory) {
 
+            this(ruleContext, idResolver, idComparator, collectionFactory, identity());
+        }
+
+        /**
+         * @param collectionFactory  Supplier of the mutable collection children are accumulated into
+         * @param collectionFinisher Applied once a collection is fully populated, e.g. {@code List::copyOf} to store
+         *                           an exact size immutable copy instead of a growable collection with slack capacity
+         */
+        @SuppressWarnings("unchecked")
+        public OneToManyContext(
+                RuleContext<T, TC, K, ID, R, RC> ruleContext,
+                Function<R, EID> idResolver,
+                Comparator<R> idComparator,
+                Supplier<RC> collectionFactory,
+                Function<RC, RC> collectionFinisher) {
+
             this(ruleContext.topLevelIdResolver(),
                     ruleContext.innerIdResolver(),
                     ruleContext.outerIdResolver(),
@@ -117,12 +133,13 @@ public sealed interface RuleMapperContext<T, TC extends Collection<T>, K, ID, EI
                     idResolver,
                     idComparator,
                     collectionFactory,
-                    (Class<RC>) collectionFactory.get().getClass());
+                    collectionFinisher,
+                    (Class<RC>) collectionFinisher.apply(collectionFactory.get()).getClass());
         }
 
         @Override
         public Function<ID, RC> defaultResultProvider() {
-            return id -> collectionFactory.get();
+            return id -> collectionFinisher.apply(collectionFactory.get());
         }
 
         @Override
@@ -130,7 +147,11 @@ public sealed interface RuleMapperContext<T, TC extends Collection<T>, K, ID, EI
             return initialMapCapacity -> groupingBy(
                     innerIdResolver(),
                     toMapSupplier(validate(initialMapCapacity), mapFactory()),
-                    toCollection(collectionFactory));
+                    collectionCollector());
+        }
+
+        public Collector<R, ?, RC> collectionCollector() {
+            return collectingAndThen(toCollection(collectionFactory), collectionFinisher);
         }
 
         @Override
@@ -145,7 +166,7 @@ public sealed interface RuleMapperContext<T, TC extends Collection<T>, K, ID, EI
 
         @SuppressWarnings("unchecked")
         public RC convert(Collection<R> collection) {
-            return collectionType().isInstance(collection) ? (RC) collection : translate(collection, collectionFactory());
+            return collectionType().isInstance(collection) ? (RC) collection : collectionFinisher.apply(translate(collection, collectionFactory()));
         }
     }
 
@@ -16,14 +16,32 @@
 
 package io.github.pellse.assembler;
 
+import io.github.pellse.assembler.RuleMapperContext.OneToManyContext;
 import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
+import static io.github.pellse.assembler.DegradedRules.reportDegradedRule;
+import static io.github.pellse.assembler.EntityBatch.extractIds;
+import static io.github.pellse.assembler.FluxAdapter.DEFAULT_MAX_CONCURRENCY;
+import static io.github.pellse.assembler.LongRange.toLongRanges;
+import static io.github.pellse.assembler.Rule.RULE_NAME_KEY;
+import static io.github.pellse.assembler.Rule.SELECTED_RULES_KEY;
+import static io.github.pellse.util.collection.CollectionUtils.isEmpty;
 import static io.github.pellse.util.collection.CollectionUtils.toStream;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toCollection;
+import static java.util.stream.Collectors.toSet;
+import static reactor.core.publisher.Flux.concat;
+import static reactor.core.publisher.Flux.fromIterable;
 import static java.util.Arrays.stream;
 import static java.util.Objects.requireNonNullElse;
 
@@ -37,6 +55,10 @@ import static java.util.Objects.requireNonNullElse;
 public interface RuleMapperSource<T, TC extends Collection<T>, K, ID, EID, R, RRC, CTX extends RuleMapperContext<T, TC, K, ID, EID, R, RRC>>
         extends Function<CTX, Function<TC, Publisher<R>>> {
 
+    @FunctionalInterface
+    interface InlineRuleMapperSource<T, TC extends Collection<T>, K, ID, EID, R, RRC, CTX extends RuleMapperContext<T, TC, K, ID, EID, R, RRC>> extends RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX> {
+    }
+
     RuleMapperSource<?, Collection<Object>, ?, ?, ?, ?, ?, RuleMapperContext<Object, Collection<Object>, Object, Object, Object, Object, Object>> EMPTY_SOURCE = ruleContext -> ids -> Mono.empty();
 
     static <T, TC extends Collection<T>, K, ID, EID, R, RRC, CTX extends RuleMapperContext<T, TC, K, ID, EID, R, RRC>> RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX> toRuleMapperSource(Function<TC, Publisher<R>> queryFunction) {
@@ -51,7 +73,64 @@ public interface RuleMapperSource<T, TC extends Collection<T>, K, ID, EID, R, RR
             Function<T, ID> idResolver,
             Function<List<ID>, Publisher<R>> queryFunction) {
 
-        return ruleContext -> entities -> queryFunction.apply(toStream(entities).map(idResolver).toList());
+        return ruleContext -> entities -> queryFunction.apply(extractIds(entities, idResolver));
+    }
+
+    /**
+     * Same as {@link #call(Function)} but {@code queryFunction} receives de-duplicated ids, in the order they were first encountered
+     */
+    static <T, TC extends Collection<T>, K, ID, EID, R, RRC, CTX extends RuleMapperContext<T, TC, K, ID, EID, R, RRC>> RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX> callNormalized(Function<List<ID>, Publisher<R>> queryFunction) {
+        return ruleContext -> RuleMapperSource.<T, TC, K, ID, EID, R, RRC, CTX>callNormalized(ruleContext.outerIdResolver(), queryFunction).apply(ruleContext);
+    }
+
+    static <T, TC extends Collection<T>, K, ID, EID, R, RRC, CTX extends RuleMapperContext<T, TC, K, ID, EID, R, RRC>> RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX> callNormalized(
+            Function<T, ID> idResolver,
+            Function<List<ID>, Publisher<R>> queryFunction) {
+
+        return call(idResolver, ids -> queryFunction.apply(ids.size() > 1 ? ids.stream().distinct().toList() : ids));
+    }
+
+    /**
+     * Same as {@link #callNormalized(Function)} but ids are also sorted in ascending order, which usually improves index locality
+     */
+    static <T, TC extends Collection<T>, K, ID extends Comparable<? super ID>, EID, R, RRC, CTX extends RuleMapperContext<T, TC, K, ID, EID, R, RRC>> RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX> callSorted(Function<List<ID>, Publisher<R>> queryFunction) {
+        return ruleContext -> RuleMapperSource.<T, TC, K, ID, EID, R, RRC, CTX>callSorted(ruleContext.outerIdResolver(), queryFunction).apply(ruleContext);
+    }
+
+    static <T, TC extends Collection<T>, K, ID extends Comparable<? super ID>, EID, R, RRC, CTX extends RuleMapperContext<T, TC, K, ID, EID, R, RRC>> RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX> callSorted(
+            Function<T, ID> idResolver,
+            Function<List<ID>, Publisher<R>> queryFunction) {
+
+        return call(idResolver, ids -> queryFunction.apply(sortedDistinct(ids)));
+    }
+
+    /**
+     * Same as {@link #callSorted(Function)} for {@code long} ids, dense runs of consecutive ids being compressed into
+     * {@link LongRange}s so {@code queryFunction} can issue range scans instead of large {@code IN} lists
+     */
+    static <T, TC extends Collection<T>, K, EID, R, RRC, CTX extends RuleMapperContext<T, TC, K, Long, EID, R, RRC>> RuleMapperSource<T, TC, K, Long, EID, R, RRC, CTX> callRanges(Function<List<LongRange>, Publisher<R>> queryFunction) {
+        return ruleContext -> RuleMapperSource.<T, TC, K, EID, R, RRC, CTX>callRanges(ruleContext.outerIdResolver(), queryFunction).apply(ruleContext);
+    }
+
+    static <T, TC extends Collection<T>, K, EID, R, RRC, CTX extends RuleMapperContext<T, TC, K, Long, EID, R, RRC>> RuleMapperSource<T, TC, K, Long, EID, R, RRC, CTX> callRanges(
+            Function<T, Long> idResolver,
+            Function<List<LongRange>, Publisher<R>> queryFunction) {
+
+        return call(idResolver, ids -> queryFunction.apply(toLongRanges(sortedDistinct(ids))));
+    }
+
+    /**
+     * Queries the child entities of a whole batch of top level entities with {@code childQueryFunction}, and
+     * assembles all of them at once with {@code innerAssembler}, so the second level of an object graph is also
+     * resolved with a single query per rule per batch. The rule name and selected rules of the outer assembler are
+     * removed from the subscriber context of {@code innerAssembler}, which only applies its own rules.
+     */
+    static <T, TC extends Collection<T>, K, ID, EID, C, R, RRC, CTX extends RuleMapperContext<T, TC, K, ID, EID, R, RRC>> RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX> assembled(
+            Function<TC, Publisher<C>> childQueryFunction,
+            Assembler<C, R> innerAssembler) {
+
+        return ruleContext -> entities -> Flux.deferContextual(ctx -> innerAssembler.assemble(Flux.from(childQueryFunction.apply(entities)).contextWrite(ctx))
+                .contextWrite(innerCtx -> innerCtx.delete(RULE_NAME_KEY).delete(SELECTED_RULES_KEY)));
     }
 
     @SuppressWarnings("unchecked")
@@ -69,6 +148,27 @@ public interface RuleMapperSource<T, TC extends Collection<T>, K, ID, EID, R, RR
         return requireNonNullElse(ruleMapperSource, RuleMapperSource.<T, TC, K, ID, EID, R, RRC, CTX>emptySource());
     }
 
+    /**
+     * Marks {@code ruleMapperSource} as resolving on the subscribing thread without ever blocking (e.g. fully in memory
+     * caches), so assembler adapters subscribe to it inline instead of scheduling it on another thread. Must wrap the
+     * outermost source of a rule, the mark is not carried over by transformers applied afterward.
+     */
+    static <T, TC extends Collection<T>, K, ID, EID, R, RRC, CTX extends RuleMapperContext<T, TC, K, ID, EID, R, RRC>> RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX> inline(Function<TC, Publisher<R>> queryFunction) {
+        return inline(toRuleMapperSource(queryFunction));
+    }
+
+    static <T, TC extends Collection<T>, K, ID, EID, R, RRC, CTX extends RuleMapperContext<T, TC, K, ID, EID, R, RRC>> RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX> inline(RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX> ruleMapperSource) {
+
+        final var source = nullToEmptySource(ruleMapperSource);
+
+        final InlineRuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX> inlineSource = source::apply;
+        return inlineSource;
+    }
+
+    static <T, TC extends Collection<T>, K, ID, EID, R, RRC, CTX extends RuleMapperContext<T, TC, K, ID, EID, R, RRC>> boolean isInline(RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX> ruleMapperSource) {
+        return ruleMapperSource instanceof InlineRuleMapperSource<?, ?, ?, ?, ?, ?, ?, ?> || isEmptySource(ruleMapperSource);
+    }
+
     @SafeVarargs
     static <T, TC extends Collection<T>, K, ID, EID, R, RRC, CTX extends RuleMapperContext<T, TC, K, ID, EID, R, RRC>> RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX> pipe(
             RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX> mapper,
@@ -79,4 +179,193 @@ public interface RuleMapperSource<T, TC extends Collection<T>, K, ID, EID, R, RR
                         (ruleMapperSource, mappingFunction) -> mappingFunction.apply(ruleMapperSource),
                         (ruleMapperSource1, ruleMapperSource2) -> ruleMapperSource2);
     }
+
+    /**
+     * Only passes the entities matching {@code predicate} to the decorated source, the source is not queried at all
+     * when none match, and entities not matching directly get the rule default value. When decorating a cached source
+     * non-matching entities never reach the cache.
+     */
+    static <T, TC extends Collection<T>, K, ID, EID, R, RRC, CTX extends RuleMapperContext<T, TC, K, ID, EID, R, RRC>> Function<RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX>, RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX>> when(Predicate<? super T> predicate) {
+
+        return ruleMapperSource -> {
+            final var source = nullToEmptySource(ruleMapperSource);
+
+            final RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX> conditionalSource = ruleContext -> {
+                final var queryFunction = source.apply(ruleContext);
+
+                return entities -> {
+                    final var matchingEntities = toStream(entities)
+                            .filter(predicate)
+                            .collect(toCollection(ruleContext.topLevelCollectionFactory()));
+
+                    if (isEmpty(matchingEntities)) {
+                        return Mono.empty();
+                    }
+                    return queryFunction.apply(matchingEntities.size() == entities.size() ? entities : matchingEntities);
+                };
+            };
+
+            return isInline(source) ? inline(conditionalSource) : conditionalSource;
+        };
+    }
+
+    static <T, TC extends Collection<T>, K, ID, EID, R, RRC, CTX extends RuleMapperContext<T, TC, K, ID, EID, R, RRC>> Function<RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX>, RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX>> partitioned(int maxIdsPerQuery) {
+        return partitioned(maxIdsPerQuery, DEFAULT_MAX_CONCURRENCY);
+    }
+
+    /**
+     * Splits the entities passed to the decorated source into chunks of at most {@code maxIdsPerQuery} distinct
+     * correlation ids, and queries up to {@code maxConcurrency} chunks at once
+     */
+    static <T, TC extends Collection<T>, K, ID, EID, R, RRC, CTX extends RuleMapperContext<T, TC, K, ID, EID, R, RRC>> Function<RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX>, RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX>> partitioned(
+            int maxIdsPerQuery,
+            int maxConcurrency) {
+
+        if (maxIdsPerQuery < 1) {
+            throw new IllegalArgumentException("maxIdsPerQuery must be greater than 0, was " + maxIdsPerQuery);
+        }
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be greater than 0, was " + maxConcurrency);
+        }
+
+        return ruleMapperSource -> {
+            final var source = nullToEmptySource(ruleMapperSource);
+
+            final RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX> partitionedSource = ruleContext -> {
+                final var queryFunction = source.apply(ruleContext);
+
+                return entities -> entities.size() <= maxIdsPerQuery
+                        ? queryFunction.apply(entities)
+                        : Flux.fromIterable(entities)
+                        .distinct(ruleContext.outerIdResolver())
+                        .buffer(maxIdsPerQuery, ruleContext.topLevelCollectionFactory())
+                        .flatMap(queryFunction, maxConcurrency);
+            };
+
+            return isInline(source) ? inline(partitionedSource) : partitionedSource;
+        };
+    }
+
+    static <T, TC extends Collection<T>, K, ID, EID, R, RRC, CTX extends RuleMapperContext<T, TC, K, ID, EID, R, RRC>> Function<RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX>, RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX>> deadline(Duration timeout) {
+        return deadline(timeout, null);
+    }
+
+    /**
+     * Completes the decorated source with whatever results were received within {@code timeout}, entities with no
+     * result are then resolved by {@code fallbackQueryFunction} when not {@code null}, or by the rule default result
+     * provider otherwise. The fallback query gets its own {@code timeout}. For one-to-many rules the sub-entities of a
+     * top level entity might only be partially received when the deadline is missed, so all results of a query missing
+     * its deadline are discarded and every entity is treated as missing. Missed deadlines are reported to the
+     * {@link DegradedRules} of the subscriber context, if any.
+     */
+    static <T, TC extends Collection<T>, K, ID, EID, R, RRC, CTX extends RuleMapperContext<T, TC, K, ID, EID, R, RRC>> Function<RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX>, RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX>> deadline(
+            Duration timeout,
+            Function<TC, Publisher<R>> fallbackQueryFunction) {
+
+        return ruleMapperSource -> ruleContext -> {
+            final var queryFunction = nullToEmptySource(ruleMapperSource).apply(ruleContext);
+            final boolean discardPartialResults = ruleContext instanceof OneToManyContext<?, ?, ?, ?, ?, ?, ?>;
+
+            return entities -> Flux.deferContextual(ctx -> {
+                final var deadlineExceeded = new AtomicBoolean();
+                final var results = withDeadline(queryFunction.apply(entities), timeout, deadlineExceeded, ctx);
+
+                if (fallbackQueryFunction == null && !discardPartialResults) {
+                    return results;
+                }
+
+                return results.collectList()
+                        .flatMapMany(partialResults -> {
+                            if (!deadlineExceeded.get()) {
+                                return fromIterable(partialResults);
+                            }
+
+                            final List<R> resolvedResults = discardPartialResults ? List.of() : partialResults;
+                            if (fallbackQueryFunction == null) {
+                                return fromIterable(resolvedResults);
+                            }
+
+                            final var missingEntities = missingEntities(entities, resolvedResults, ruleContext);
+                            if (isEmpty(missingEntities)) {
+                                return fromIterable(resolvedResults);
+                            }
+
+                            final var fallbackDeadlineExceeded = new AtomicBoolean();
+                            final var fallbackResults = withDeadline(fallbackQueryFunction.apply(missingEntities), timeout, fallbackDeadlineExceeded, ctx);
+
+                            return concat(fromIterable(resolvedResults), discardPartialResults
+                                    ? fallbackResults.collectList().flatMapIterable(fallbackList -> fallbackDeadlineExceeded.get() ? List.of() : fallbackList)
+                                    : fallbackResults);
+                        });
+            });
+        };
+    }
+
+    static <T, TC extends Collection<T>, K, ID, EID, R, RRC, CTX extends RuleMapperContext<T, TC, K, ID, EID, R, RRC>> Function<RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX>, RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX>> hedged(double percentile) {
+        return hedged(percentile, null);
+    }
+
+    /**
+     * For idempotent sources only, sends a second identical query when the first one has not completed within the
+     * {@code percentile} latency of the last queries of the rule, and keeps whichever answers first. Until enough
+     * latencies are recorded {@code initialHedgeDelay} is used instead, no query is hedged when {@code null}.
+     * Latencies are measured from the original request to the first answer, never from the start of a hedged query,
+     * so hedging cannot drag the percentile down on its own.
+     * Errors of the first query are propagated as is, errors of the hedged query are ignored.
+     */
+    static <T, TC extends Collection<T>, K, ID, EID, R, RRC, CTX extends RuleMapperContext<T, TC, K, ID, EID, R, RRC>> Function<RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX>, RuleMapperSource<T, TC, K, ID, EID, R, RRC, CTX>> hedged(
+            double percentile,
+            Duration initialHedgeDelay) {
+
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("percentile must be between 0 (exclusive) and 1 (inclusive), was " + percentile);
+        }
+
+        return ruleMapperSource -> ruleContext -> {
+            final var queryFunction = nullToEmptySource(ruleMapperSource).apply(ruleContext);
+            final var latencyTracker = new LatencyTracker();
+
+            final Function<TC, Mono<List<R>>> collectingQueryFunction = entities -> Mono.defer(() -> Flux.from(queryFunction.apply(entities)).collectList());
+
+            return entities -> Mono.defer(() -> {
+                        final long start = System.nanoTime();
+                        final var hedgeDelay = latencyTracker.percentile(percentile, initialHedgeDelay);
+
+                        final var results = hedgeDelay == null
+                                ? collectingQueryFunction.apply(entities)
+                                : Mono.firstWithSignal(collectingQueryFunction.apply(entities), hedge(collectingQueryFunction.apply(entities), hedgeDelay));
+
+                        return results.doOnNext(__ -> latencyTracker.record(System.nanoTime() - start));
+                    })
+                    .flatMapIterable(identity());
+        };
+    }
+
+    private static <R> Flux<R> withDeadline(Publisher<R> results, Duration timeout, AtomicBoolean deadlineExceeded, ContextView ctx) {
+        return Flux.from(results)
+                .takeUntilOther(Mono.delay(timeout).doOnNext(__ -> {
+                    deadlineExceeded.set(true);
+                    reportDegradedRule(ctx);
+                }));
+    }
+
+    private static <R> Mono<List<R>> hedge(Mono<List<R>> query, Duration hedgeDelay) {
+        return Mono.delay(hedgeDelay)
+                .then(query.onErrorResume(__ -> Mono.never()));
+    }
+
+    private static <T, TC extends Collection<T>, K, ID, EID, R, RRC> TC missingEntities(TC entities, List<R> partialResults, RuleMapperContext<T, TC, K, ID, EID, R, RRC> ruleContext) {
+
+        final var resolvedIds = partialResults.stream()
+                .map(ruleContext.innerIdResolver())
+                .collect(toSet());
+
+        return toStream(entities)
+                .filter(entity -> !resolvedIds.contains(ruleContext.outerIdResolver().apply(entity)))
+                .collect(toCollection(ruleContext.topLevelCollectionFactory()));
+    }
+
+    private static <ID extends Comparable<? super ID>> List<ID> sortedDistinct(List<ID> ids) {
+        return ids.size() > 1 ? ids.stream().distinct().sorted().toList() : ids;
+    }
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.pellse.assembler;
+
+import jdk.jfr.*;
+
+@Name("io.github.pellse.assembler.RuleQuery")
+@Label("Rule Query")
+@Category("Assembler")
+@Description("Execution of the query of a rule for a batch of top level entities")
+@StackTrace(false)
+class RuleQueryEvent extends Event {
+
+    @Label("Rule Name")
+    String ruleName;
+
+    @Label("Id Count")
+    int idCount;
+
+    @Label("Result Count")
+    int resultCount;
+
+    void commit(String ruleName, int idCount, int resultCount) {
+        if (shouldCommit()) {
+            this.ruleName = ruleName;
+            this.idCount = idCount;
+            this.resultCount = resultCount;
+            commit();
+        }
+    }
+}
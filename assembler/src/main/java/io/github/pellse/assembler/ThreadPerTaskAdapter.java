@@ -0,0 +1,110 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.pellse.assembler;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNullElse;
+import static java.util.concurrent.Executors.newThreadPerTaskExecutor;
+import static reactor.core.Exceptions.unwrap;
+import static reactor.core.scheduler.Schedulers.fromExecutor;
+
+public interface ThreadPerTaskAdapter {
+
+    static <T, ID, R> AssemblerAdapter<T, ID, R> virtualThreadAdapter() {
+        return threadPerTaskAdapter(Thread.ofVirtual().name("assembler-", 0).factory());
+    }
+
+    /**
+     * Runs each sub query of a batch on its own thread created by {@code threadFactory}, blocking sources
+     * (e.g. wrapped with {@link QueryUtils#toPublisher}) then only ever block their own thread.
+     * If any sub query fails the others are interrupted and the error is propagated downstream.
+     */
+    static <T, ID, R> AssemblerAdapter<T, ID, R> threadPerTaskAdapter(ThreadFactory threadFactory) {
+
+        final var scheduler = fromExecutor(command -> threadFactory.newThread(command).start());
+
+        return (topLevelEntitiesProvider, subQueryMapperBuilder, aggregateStreamBuilder) -> Flux.from(topLevelEntitiesProvider)
+                .collectList()
+                .flatMap(entities -> Mono.deferContextual(ctx -> Mono.fromCallable(() -> assembleBatch(entities, subQueryMapperBuilder, aggregateStreamBuilder, threadFactory, ctx)))
+                        .subscribeOn(scheduler))
+                .flatMapIterable(Function.identity());
+    }
+
+    private static <T, ID, R> List<R> assembleBatch(
+            List<T> entities,
+            Function<Iterable<T>, Stream<Publisher<? extends Map<ID, ?>>>> subQueryMapperBuilder,
+            BiFunction<Iterable<T>, List<Map<ID, ?>>, Stream<R>> aggregateStreamBuilder,
+            ThreadFactory threadFactory,
+            ContextView ctx) throws Exception {
+
+        try (var executor = newThreadPerTaskExecutor(threadFactory)) {
+            final var mapperResults = runSubQueries(executor, subQueryMapperBuilder.apply(entities).toList(), ctx);
+            return aggregateStreamBuilder.apply(entities, mapperResults).toList();
+        }
+    }
+
+    private static <ID> List<Map<ID, ?>> runSubQueries(ExecutorService executor, List<Publisher<? extends Map<ID, ?>>> subQueries, ContextView ctx) throws Exception {
+
+        final var completionService = new ExecutorCompletionService<Map.Entry<Integer, Map<ID, ?>>>(executor);
+
+        for (int i = 0; i < subQueries.size(); i++) {
+            final int index = i;
+            final var subQuery = subQueries.get(i);
+
+            completionService.submit(() -> Map.entry(index, requireNonNullElse(Mono.from(subQuery).contextWrite(ctx).block(), Map.of())));
+        }
+
+        final var mapperResults = new ArrayList<Map<ID, ?>>(subQueries.size());
+        subQueries.forEach(__ -> mapperResults.add(null));
+
+        try {
+            for (int i = 0; i < subQueries.size(); i++) {
+                final var result = completionService.take().get();
+                mapperResults.set(result.getKey(), result.getValue());
+            }
+        } catch (ExecutionException e) {
+            executor.shutdownNow();
+            throw toException(unwrap(e.getCause()));
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            throw e;
+        }
+        return mapperResults;
+    }
+
+    private static Exception toException(Throwable t) {
+        if (t instanceof Error error) {
+            throw error;
+        }
+        return (Exception) t;
+    }
+}
@@ -130,7 +130,7 @@ public interface Cache<ID, RRC> {
                 applyMergeStrategy(
                         optimizedCache,
                         (cache, existingCacheItems, incomingChanges) ->
-                                then(subtractFromMap(incomingChanges, existingCacheItems, ctx.idResolver(), ctx.collectionFactory()),
+                                then(subtractFromMap(incomingChanges, existingCacheItems, ctx.idResolver(), ctx.collectionCollector()),
                                         updatedMap -> cache.updateAll(updatedMap, diff(existingCacheItems, updatedMap))))
 //                (incomingChangesToAdd, incomingChangesToRemove) -> {
 //                    delegateCache.getAll(Stream.concat(incomingChangesToAdd.keySet().stream(), incomingChangesToRemove.keySet().stream()).distinct().toList())
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.pellse.assembler.caching;
+
+import jdk.jfr.*;
+
+@Name("io.github.pellse.assembler.CacheComputeAll")
+@Label("Cache Compute All")
+@Category("Assembler")
+@Description("Lookup of a batch of ids in the cache of a rule, missing ids are fetched from the rule source")
+@StackTrace(false)
+class CacheComputeAllEvent extends Event {
+
+    @Label("Hit Count")
+    int hitCount;
+
+    @Label("Miss Count")
+    int missCount;
+
+    @Label("Fetch Duration")
+    @Timespan
+    long fetchDuration;
+}
@@ -28,6 +28,9 @@ import java.util.function.IntFunction;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
 
+import static java.util.stream.Collectors.collectingAndThen;
+import static java.util.stream.Collectors.toCollection;
+
 public sealed interface CacheContext<ID, R, RRC> {
 
     IntFunction<Collector<R, ?, Map<ID, RRC>>> mapCollector();
@@ -48,10 +51,15 @@ public sealed interface CacheContext<ID, R, RRC> {
             IntFunction<Collector<R, ?, Map<ID, RC>>> mapCollector,
             BiFunction<Map<ID, RC>, Map<ID, RC>, Map<ID, RC>> mapMerger,
             Comparator<R> idComparator,
-            Supplier<RC> collectionFactory) implements CacheContext<ID, R, RC> {
+            Supplier<RC> collectionFactory,
+            Function<RC, RC> collectionFinisher) implements CacheContext<ID, R, RC> {
 
         OneToManyCacheContext(OneToManyContext<?, ?, ?, ID, EID, R, RC> ctx) {
-            this(ctx.idResolver(), ctx.mapCollector(), ctx.mapMerger(), ctx.idComparator(), ctx.collectionFactory());
+            this(ctx.idResolver(), ctx.mapCollector(), ctx.mapMerger(), ctx.idComparator(), ctx.collectionFactory(), ctx.collectionFinisher());
+        }
+
+        public Collector<R, ?, RC> collectionCollector() {
+            return collectingAndThen(toCollection(collectionFactory), collectionFinisher);
         }
     }
 }
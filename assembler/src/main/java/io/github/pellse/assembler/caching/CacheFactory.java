@@ -24,18 +24,25 @@ import io.github.pellse.assembler.caching.Cache.FetchFunction;
 import io.github.pellse.assembler.caching.CacheContext.OneToManyCacheContext;
 import io.github.pellse.assembler.caching.CacheContext.OneToOneCacheContext;
 import io.github.pellse.util.collection.CollectionUtils;
+import io.github.pellse.util.collection.StripedLongHashMap;
 import org.reactivestreams.Publisher;
+import reactor.core.Scannable;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Sinks;
 import reactor.core.publisher.Sinks.Empty;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
+import static io.github.pellse.assembler.AssemblerMetrics.metrics;
+import static io.github.pellse.assembler.DegradedRules.UNNAMED_RULE;
+import static io.github.pellse.assembler.EntityBatch.extractIds;
 import static io.github.pellse.assembler.QueryUtils.buildQueryFunction;
+import static io.github.pellse.assembler.Rule.ruleName;
 import static io.github.pellse.assembler.RuleMapperSource.*;
 import static io.github.pellse.assembler.caching.Cache.*;
 import static io.github.pellse.assembler.caching.DeferCacheFactory.defer;
@@ -44,6 +51,7 @@ import static io.github.pellse.util.ObjectUtils.*;
 import static io.github.pellse.util.collection.CollectionUtils.*;
 import static io.github.pellse.util.reactive.ReactiveUtils.createSinkMap;
 import static io.github.pellse.util.reactive.ReactiveUtils.resolve;
+import static java.lang.System.nanoTime;
 import static java.util.Arrays.stream;
 import static java.util.Optional.ofNullable;
 import static java.util.function.Predicate.not;
@@ -66,8 +74,14 @@ public interface CacheFactory<ID, R, RRC, CTX extends CacheContext<ID, R, RRC>>
     }
 
     static <ID, R, RRC, CTX extends CacheContext<ID, R, RRC>> CacheFactory<ID, R, RRC, CTX> cache() {
+        return cache(new ConcurrentHashMap<>());
+    }
+
+    static <R, RRC, CTX extends CacheContext<Long, R, RRC>> CacheFactory<Long, R, RRC, CTX> longCache() {
+        return cache(new StripedLongHashMap<>());
+    }
 
-        final var delegateMap = new ConcurrentHashMap<ID, Sinks.One<RRC>>();
+    private static <ID, R, RRC, CTX extends CacheContext<ID, R, RRC>> CacheFactory<ID, R, RRC, CTX> cache(Map<ID, Sinks.One<RRC>> delegateMap) {
 
         Function<Iterable<ID>, Mono<Map<ID, RRC>>> getAll = ids -> resolve(readAll(ids, delegateMap, Empty::asMono));
 
@@ -77,7 +91,7 @@ public interface CacheFactory<ID, R, RRC, CTX extends CacheContext<ID, R, RRC>>
 
             final var missingIds = diff(ids, cachedEntitiesMap.keySet());
             if (isEmpty(missingIds)) {
-                return resolve(cachedEntitiesMap);
+                return reportInFlight(cachedEntitiesMap, resolve(cachedEntitiesMap));
             }
 
             final var sinkMap = also(createSinkMap(missingIds), delegateMap::putAll);
@@ -92,13 +106,14 @@ public interface CacheFactory<ID, R, RRC, CTX extends CacheContext<ID, R, RRC>>
                         delegateMap.remove(id);
                         sink.tryEmitError(e);
                     }))
-                    .flatMap(__ -> resolve(mergeMaps(cachedEntitiesMap, transformMap(sinkMap, Empty::asMono))));
+                    .flatMap(__ -> resolve(mergeMaps(cachedEntitiesMap, transformMap(sinkMap, Empty::asMono))))
+                    .transform(results -> reportInFlight(cachedEntitiesMap, results));
         };
 
         Function<Map<ID, RRC>, Mono<?>> putAll = toMono(map -> also(createSinkMap(map.keySet()), delegateMap::putAll)
                 .forEach((id, sink) -> sink.tryEmitValue(map.get(id))));
 
-        Function<Map<ID, RRC>, Mono<?>> removeAll = toMono(map -> also(map.keySet(), ids -> delegateMap.keySet().removeAll(ids))
+        Function<Map<ID, RRC>, Mono<?>> removeAll = toMono(map -> also(map.keySet(), ids -> ids.forEach(delegateMap::remove))
                 .forEach(id -> ofNullable(delegateMap.get(id)).ifPresent(Empty::tryEmitEmpty)));
 
         return cache(getAll, computeAll, putAll, removeAll);
@@ -270,6 +285,18 @@ public interface CacheFactory<ID, R, RRC, CTX extends CacheContext<ID, R, RRC>>
         return map -> just(also(map, consumer));
     }
 
+    private static <ID, RRC> Mono<Map<ID, RRC>> reportInFlight(Map<ID, Mono<RRC>> cachedEntitiesMap, Mono<Map<ID, RRC>> results) {
+
+        return Mono.deferContextual(ctx -> {
+            InFlightCounter.reportInFlight(ctx, () -> (int) cachedEntitiesMap.values().stream().filter(not(CacheFactory::isResolved)).count());
+            return results;
+        });
+    }
+
+    private static boolean isResolved(Mono<?> mono) {
+        return Scannable.from(mono).scanOrDefault(Scannable.Attr.TERMINATED, false);
+    }
+
     private static <ID, R> CacheFactory<ID, R, R, OneToOneCacheContext<ID, R>> oneToOneCacheFactory(CacheFactory<ID, R, R, OneToOneCacheContext<ID, R>> cacheFactory) {
         return cacheContext -> oneToOneCache(cacheFactory.create(cacheContext));
     }
@@ -293,7 +320,7 @@ public interface CacheFactory<ID, R, RRC, CTX extends CacheContext<ID, R, RRC>>
             final var cache = delegate(cacheFactory, delegateCacheFactories)
                     .create(cacheContextProvider.apply(ruleContext));
 
-            return entities -> then(ids(entities, ruleContext), ids -> isEmptySource ? cache.getAll(ids) : cache.computeAll(ids, buildFetchFunction(entities, nullToEmptySource(ruleMapperSource), ruleContext)))
+            return entities -> then(ids(entities, ruleContext), ids -> isEmptySource ? cache.getAll(ids) : computeAll(cache, ids, buildFetchFunction(entities, nullToEmptySource(ruleMapperSource), ruleContext)))
                     .filter(CollectionUtils::isNotEmpty)
                     .flatMapMany(map -> fromStream(ruleContext.streamFlattener().apply(map.values().stream())))
                     .onErrorResume(not(QueryFunctionException.class::isInstance), __ -> queryFunction.apply(entities))
@@ -301,8 +328,50 @@ public interface CacheFactory<ID, R, RRC, CTX extends CacheContext<ID, R, RRC>>
         };
     }
 
+    /**
+     * Reports hits and misses of every cache implementation to the {@link io.github.pellse.assembler.AssemblerMetrics}
+     * of the subscriber context and to the {@link CacheComputeAllEvent}, ids not passed to {@code fetchFunction} count as
+     * hits, duplicates included
+     */
+    private static <ID, RRC> Mono<Map<ID, RRC>> computeAll(Cache<ID, RRC> cache, List<ID> ids, FetchFunction<ID, RRC> fetchFunction) {
+
+        return Mono.deferContextual(ctx -> {
+            final var metrics = metrics(ctx).orElse(null);
+            final var event = new CacheComputeAllEvent();
+
+            if (metrics == null && !event.isEnabled()) {
+                return cache.computeAll(ids, fetchFunction);
+            }
+
+            final var missCount = new AtomicInteger();
+            final var inFlightCounter = new InFlightCounter();
+            event.begin();
+
+            return cache.computeAll(ids, missingIds -> {
+                        final long fetchStart = nanoTime();
+                        missCount.addAndGet(size(missingIds));
+
+                        return fetchFunction.apply(missingIds)
+                                .doOnTerminate(() -> event.fetchDuration = nanoTime() - fetchStart);
+                    })
+                    .doOnSuccess(__ -> {
+                        if (metrics != null) {
+                            metrics.onCacheAccess(ruleName(ctx).orElse(UNNAMED_RULE), ids.size() - missCount.get(), missCount.get(), inFlightCounter.count());
+                        }
+                    })
+                    .doOnTerminate(() -> {
+                        if (event.shouldCommit()) {
+                            event.hitCount = ids.size() - missCount.get();
+                            event.missCount = missCount.get();
+                            event.commit();
+                        }
+                    })
+                    .contextWrite(inFlightCounter.register());
+        });
+    }
+
     private static <T, TC extends Collection<T>, K, ID, EID, R, RRC> List<ID> ids(TC entities, RuleMapperContext<T, TC, K, ID, EID, R, RRC> ruleContext) {
-        return transform(entities, ruleContext.outerIdResolver());
+        return extractIds(entities, ruleContext.outerIdResolver());
     }
 
     private static <T, TC extends Collection<T>, K, ID, EID, R, RRC, CTX extends RuleMapperContext<T, TC, K, ID, EID, R, RRC>> FetchFunction<ID, RRC> buildFetchFunction(
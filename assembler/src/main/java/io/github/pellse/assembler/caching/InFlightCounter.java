@@ -0,0 +1,46 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.pellse.assembler.caching;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+/**
+ * Collects through the subscriber context how many ids of a {@link Cache#computeAll} were found in flight, for the
+ * caches able to tell, only present when cache accesses are reported to {@link io.github.pellse.assembler.AssemblerMetrics}
+ */
+class InFlightCounter {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    int count() {
+        return count.get();
+    }
+
+    Function<Context, Context> register() {
+        return ctx -> ctx.put(InFlightCounter.class, this);
+    }
+
+    static void reportInFlight(ContextView ctx, IntSupplier inFlightCount) {
+        ctx.<InFlightCounter>getOrEmpty(InFlightCounter.class)
+                .ifPresent(counter -> counter.count.addAndGet(inFlightCount.getAsInt()));
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.pellse.assembler.caching;
+
+import io.github.pellse.assembler.caching.CacheFactory.CacheTransformer;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Predicate;
+
+import static io.github.pellse.assembler.caching.Cache.adapterCache;
+import static io.github.pellse.util.collection.CollectionUtils.toStream;
+import static java.lang.System.nanoTime;
+import static java.util.Collections.synchronizedMap;
+import static java.util.Map.of;
+import static java.util.function.Predicate.not;
+import static reactor.core.publisher.Mono.just;
+
+public interface NegativeCacheFactory {
+
+    /**
+     * Remembers the ids for which the fetch function returned no value for {@code ttl}, so subsequent requests for
+     * these ids are answered from memory instead of querying the backend again. At most {@code maxSize} missing ids
+     * are remembered, the oldest being evicted first, and ids added to the cache afterward (e.g. through auto caching)
+     * are no longer considered missing.
+     */
+    static <ID, R, RRC, CTX extends CacheContext<ID, R, RRC>> CacheTransformer<ID, R, RRC, CTX> negativeCache(Duration ttl, int maxSize) {
+        validate(ttl, maxSize);
+        return cacheFactory -> negativeCache(cacheFactory, ttl, maxSize);
+    }
+
+    static <ID, R, RRC, CTX extends CacheContext<ID, R, RRC>> CacheFactory<ID, R, RRC, CTX> negativeCache(CacheFactory<ID, R, RRC, CTX> cacheFactory, Duration ttl, int maxSize) {
+
+        validate(ttl, maxSize);
+        return context -> negativeCache(cacheFactory.create(context), ttl, maxSize);
+    }
+
+    private static <ID, RRC> Cache<ID, RRC> negativeCache(Cache<ID, RRC> delegateCache, Duration ttl, int maxSize) {
+
+        final long ttlNanos = ttl.toNanos();
+
+        final Map<ID, Long> missingIds = synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Entry<ID, Long> eldest) {
+                return size() > maxSize;
+            }
+        });
+
+        final Predicate<ID> isKnownMissing = id -> {
+            final var expiryTime = missingIds.get(id);
+            if (expiryTime == null) {
+                return false;
+            }
+            if (expiryTime - nanoTime() > 0) {
+                return true;
+            }
+            missingIds.remove(id, expiryTime);
+            return false;
+        };
+
+        return adapterCache(
+                delegateCache::getAll,
+                (ids, fetchFunction) -> {
+                    final var idsToCompute = toStream(ids).filter(not(isKnownMissing)).toList();
+                    if (idsToCompute.isEmpty()) {
+                        return just(of());
+                    }
+
+                    return delegateCache.computeAll(idsToCompute, fetchIds -> fetchFunction.apply(fetchIds)
+                            .doOnNext(resultMap -> {
+                                final long expiryTime = nanoTime() + ttlNanos;
+                                fetchIds.forEach(id -> {
+                                    if (resultMap.get(id) == null) {
+                                        missingIds.put(id, expiryTime);
+                                    }
+                                });
+                            }));
+                },
+                map -> {
+                    map.keySet().forEach(missingIds::remove);
+                    return delegateCache.putAll(map);
+                },
+                delegateCache::removeAll,
+                (mapToAdd, mapToRemove) -> {
+                    mapToAdd.keySet().forEach(missingIds::remove);
+                    return delegateCache.updateAll(mapToAdd, mapToRemove);
+                });
+    }
+
+    private static void validate(Duration ttl, int maxSize) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be positive, was " + ttl);
+        }
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be greater than 0, was " + maxSize);
+        }
+    }
+}
@@ -24,7 +24,6 @@ import java.util.Comparator;
 import java.util.function.Function;
 
 import static io.github.pellse.assembler.caching.MapperCacheFactory.mapper;
-import static java.util.stream.Collectors.toCollection;
 
 public interface SortByCacheFactory {
 
@@ -45,6 +44,6 @@ public interface SortByCacheFactory {
                 cacheContext ->
                         (__, coll) -> coll.stream()
                                 .sorted(comparatorProvider.apply(cacheContext))
-                                .collect(toCollection(cacheContext.collectionFactory())));
+                                .collect(cacheContext.collectionCollector()));
     }
 }
\ No newline at end of file
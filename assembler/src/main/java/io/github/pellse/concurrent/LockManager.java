@@ -37,12 +37,16 @@ class LockManager {
         }
     }
 
-    record LockRequest(Lock lock, Sinks.One<Lock> sink) {
+    record LockRequest(Lock lock, Sinks.One<Lock> sink, LockWaitEvent waitEvent) {
         public boolean emit() {
             Sinks.EmitResult result;
             do {
                 result = sink.tryEmitValue(lock());
             } while (result == FAIL_NON_SERIALIZED);
+
+            if (result.isSuccess() && waitEvent.shouldCommit()) {
+                waitEvent.commit();
+            }
             return result.isSuccess();
         }
     }
@@ -90,7 +94,11 @@ class LockManager {
             return just(innerLock);
         }
 
-        final var lockRequest = new LockRequest(innerLock, Sinks.one());
+        final var waitEvent = new LockWaitEvent();
+        waitEvent.writeLock = queue == writeQueue;
+        waitEvent.begin();
+
+        final var lockRequest = new LockRequest(innerLock, Sinks.one(), waitEvent);
         boolean succeeded;
         do {
             succeeded = queue.offer(lockRequest);
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.pellse.concurrent;
+
+import jdk.jfr.*;
+
+@Name("io.github.pellse.assembler.LockWait")
+@Label("Lock Wait")
+@Category("Assembler")
+@Description("Time spent waiting for a contended cache read or write lock")
+@StackTrace(false)
+class LockWaitEvent extends Event {
+
+    @Label("Write Lock")
+    boolean writeLock;
+}
@@ -22,6 +22,7 @@ import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Collector;
 import java.util.stream.Stream;
 
 import static io.github.pellse.util.ObjectUtils.also;
@@ -226,6 +227,15 @@ public interface CollectionUtils {
             Function<? super V, ID> idResolver,
             Supplier<VC> collectionFactory) {
 
+        return subtractFromMap(mapToSubtract, srcMap, idResolver, toCollection(collectionFactory));
+    }
+
+    static <K, V, VC extends Collection<V>, ID> Map<K, VC> subtractFromMap(
+            Map<K, VC> mapToSubtract,
+            Map<K, VC> srcMap,
+            Function<? super V, ID> idResolver,
+            Collector<V, ?, VC> collectionCollector) {
+
         return srcMap.entrySet().stream()
                 .map(entry -> {
                     final var itemsToSubtract = mapToSubtract.get(entry.getKey());
@@ -238,7 +248,7 @@ public interface CollectionUtils {
 
                     final var newColl = toStream(entry.getValue())
                             .filter(element -> !idsToSubtract.contains(idResolver.apply(element)))
-                            .collect(toCollection(collectionFactory));
+                            .collect(collectionCollector);
 
                     return isNotEmpty(newColl) ? entry(entry.getKey(), newColl) : null;
                 })
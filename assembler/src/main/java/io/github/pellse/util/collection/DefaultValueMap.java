@@ -0,0 +1,99 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.pellse.util.collection;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * Read-only {@link Map} view of {@code keys} where every key found in {@code delegate} is mapped to its value in
+ * {@code delegate}, and every other key to a default value computed by {@code defaultValueProvider}. Nothing is
+ * copied or precomputed: default values are computed on each lookup of a missing key, so {@code defaultValueProvider}
+ * should be cheap and side effect free, and {@link #size()} is the size of {@code keys}. Entries of {@code delegate}
+ * whose key is not in {@code keys} are not part of the view.
+ */
+public class DefaultValueMap<K, V> extends AbstractMap<K, V> {
+
+    private final Map<K, V> delegate;
+    private final Set<K> keys;
+    private final Function<K, V> defaultValueProvider;
+
+    private Set<Entry<K, V>> entrySet;
+
+    public DefaultValueMap(Map<K, V> delegate, Set<K> keys, Function<K, V> defaultValueProvider) {
+        this.delegate = unmodifiableMap(delegate);
+        this.keys = keys;
+        this.defaultValueProvider = defaultValueProvider;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (!keys.contains(key)) {
+            return null;
+        }
+        final V value = delegate.get(key);
+        return value != null || delegate.containsKey(key) ? value : defaultValueProvider.apply((K) key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return keys.contains(key);
+    }
+
+    @Override
+    public int size() {
+        return keys.size();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+
+                    final var keyIterator = keys.iterator();
+
+                    return new Iterator<>() {
+
+                        @Override
+                        public boolean hasNext() {
+                            return keyIterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<K, V> next() {
+                            final var key = keyIterator.next();
+                            return new SimpleImmutableEntry<>(key, get(key));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return DefaultValueMap.this.size();
+                }
+            };
+        }
+        return entrySet;
+    }
+}
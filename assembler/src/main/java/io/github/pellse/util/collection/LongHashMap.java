@@ -0,0 +1,383 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.pellse.util.collection;
+
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Open addressing {@link Map} keyed by primitive {@code long} values, keys are stored unboxed and no {@link Entry}
+ * object is allocated per mapping. The {@code long} overloads ({@link #get(long)}, {@link #put(long, Object)}, ...)
+ * never box, the {@link Map} methods are provided for interoperability. Not thread safe, {@code null} keys are not supported.
+ */
+public class LongHashMap<V> extends AbstractMap<Long, V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private static final Object NULL_VALUE = new Object();
+    private static final Object REMOVED = new Object();
+
+    private long[] keys;
+    private Object[] values;
+
+    private int mask;
+    private int size;
+    private int usedSlots;
+    private int resizeThreshold;
+
+    private Set<Entry<Long, V>> entrySet;
+    private Set<Long> keySet;
+
+    public LongHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public V get(long key) {
+        final int index = indexOf(key);
+        return index < 0 ? null : unmask(values[index]);
+    }
+
+    public V getOrDefault(long key, V defaultValue) {
+        final int index = indexOf(key);
+        return index < 0 ? defaultValue : unmask(values[index]);
+    }
+
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    public V put(long key, V value) {
+
+        int index = slot(key);
+        int firstRemoved = -1;
+
+        Object current;
+        while ((current = values[index]) != null) {
+            if (current == REMOVED) {
+                if (firstRemoved < 0) {
+                    firstRemoved = index;
+                }
+            } else if (keys[index] == key) {
+                values[index] = mask(value);
+                return unmask(current);
+            }
+            index = (index + 1) & mask;
+        }
+
+        if (firstRemoved >= 0) {
+            index = firstRemoved;
+        } else {
+            usedSlots++;
+        }
+
+        keys[index] = key;
+        values[index] = mask(value);
+        size++;
+
+        if (usedSlots > resizeThreshold) {
+            rehash(size > resizeThreshold / 2 ? keys.length << 1 : keys.length);
+        }
+        return null;
+    }
+
+    public V remove(long key) {
+        final int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+
+        final V oldValue = unmask(values[index]);
+        removeAt(index);
+        return oldValue;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Long longKey ? get(longKey.longValue()) : null;
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        return key instanceof Long longKey ? getOrDefault(longKey.longValue(), defaultValue) : defaultValue;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Long longKey && containsKey(longKey.longValue());
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        final var maskedValue = mask(value);
+        for (var v : values) {
+            if (v != null && v != REMOVED && Objects.equals(v, maskedValue)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public V put(Long key, V value) {
+        return put(requireNonNull(key, "key cannot be null").longValue(), value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Long longKey ? remove(longKey.longValue()) : null;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+        usedSlots = 0;
+    }
+
+    @Override
+    public Set<Long> keySet() {
+        if (keySet == null) {
+            keySet = new AbstractSet<>() {
+
+                @Override
+                public Iterator<Long> iterator() {
+                    return new SlotIterator<>() {
+                        @Override
+                        Long valueAt(int index) {
+                            return keys[index];
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public boolean contains(Object key) {
+                    return containsKey(key);
+                }
+
+                @Override
+                public boolean remove(Object key) {
+                    return key instanceof Long longKey && removeKey(longKey);
+                }
+
+                @Override
+                public void clear() {
+                    LongHashMap.this.clear();
+                }
+            };
+        }
+        return keySet;
+    }
+
+    @Override
+    public Set<Entry<Long, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+
+                @Override
+                public Iterator<Entry<Long, V>> iterator() {
+                    return new SlotIterator<>() {
+                        @Override
+                        Entry<Long, V> valueAt(int index) {
+                            return new SlotEntry(index);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public void clear() {
+                    LongHashMap.this.clear();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private boolean removeKey(long key) {
+        final int index = indexOf(key);
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    private void removeAt(int index) {
+        values[index] = REMOVED;
+        size--;
+    }
+
+    private int indexOf(long key) {
+
+        int index = slot(key);
+
+        Object current;
+        while ((current = values[index]) != null) {
+            if (current != REMOVED && keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int slot(long key) {
+        final long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void rehash(int newCapacity) {
+
+        final var oldKeys = keys;
+        final var oldValues = values;
+
+        allocate(newCapacity);
+
+        for (int i = 0; i < oldValues.length; i++) {
+            final var value = oldValues[i];
+            if (value != null && value != REMOVED) {
+                int index = slot(oldKeys[i]);
+                while (values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = value;
+            }
+        }
+        usedSlots = size;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * 0.75f);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        final int capacity = (int) Math.ceil(Math.max(expectedSize, 1) / 0.75f) + 1;
+        return Math.max(Integer.highestOneBit(capacity - 1) << 1, 2);
+    }
+
+    private static Object mask(Object value) {
+        return value == null ? NULL_VALUE : value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V unmask(Object value) {
+        return value == NULL_VALUE ? null : (V) value;
+    }
+
+    private abstract class SlotIterator<E> implements Iterator<E> {
+
+        private int nextIndex = advance(0);
+        private int lastIndex = -1;
+
+        abstract E valueAt(int index);
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < values.length;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastIndex = nextIndex;
+            nextIndex = advance(nextIndex + 1);
+            return valueAt(lastIndex);
+        }
+
+        @Override
+        public void remove() {
+            if (lastIndex < 0) {
+                throw new IllegalStateException();
+            }
+            removeAt(lastIndex);
+            lastIndex = -1;
+        }
+
+        private int advance(int index) {
+            while (index < values.length && (values[index] == null || values[index] == REMOVED)) {
+                index++;
+            }
+            return index;
+        }
+    }
+
+    private class SlotEntry implements Entry<Long, V> {
+
+        private final int index;
+
+        SlotEntry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public Long getKey() {
+            return keys[index];
+        }
+
+        @Override
+        public V getValue() {
+            return unmask(values[index]);
+        }
+
+        @Override
+        public V setValue(V value) {
+            final V oldValue = getValue();
+            values[index] = mask(value);
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Entry<?, ?> e && getKey().equals(e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(keys[index]) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
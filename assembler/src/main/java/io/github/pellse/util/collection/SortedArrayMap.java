@@ -0,0 +1,278 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.pellse.util.collection;
+
+import java.util.*;
+import java.util.function.BiFunction;
+
+import static java.util.HashMap.newHashMap;
+
+/**
+ * {@link Map} optimized for keys inserted in ascending natural order, entries are appended to two parallel arrays
+ * and no hashing is involved. Lookups first check the slot following the last one found so a scan in key order costs
+ * O(1) per key, falling back to a binary search otherwise. Inserting a new key out of order converts the map to a
+ * {@link HashMap}, see {@link #isSorted()}. Keys must be {@link Comparable}, {@code null} keys are not supported.
+ * Not thread safe: even lookups update the shared position hint, once the map is populated and safely published
+ * concurrent lookups still return correct results since the hint is always validated before use, but readers racing
+ * on it lose the O(1) fast path and fall back to binary searches.
+ */
+public class SortedArrayMap<K, V> extends AbstractMap<K, V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Object[] keys;
+    private Object[] values;
+    private int size;
+
+    private int lastIndex;
+
+    private Map<K, V> hashMap;
+
+    private Set<Entry<K, V>> entrySet;
+
+    public SortedArrayMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SortedArrayMap(int expectedSize) {
+        keys = new Object[Math.max(expectedSize, 1)];
+        values = new Object[keys.length];
+    }
+
+    /**
+     * @return {@code true} as long as all keys were inserted in ascending order, {@code false} once the map
+     * has switched to hashing
+     */
+    public boolean isSorted() {
+        return hashMap == null;
+    }
+
+    @Override
+    public int size() {
+        return hashMap != null ? hashMap.size() : size;
+    }
+
+    @Override
+    public V get(Object key) {
+        if (hashMap != null) {
+            return hashMap.get(key);
+        }
+        final int index = indexOf(key);
+        return index < 0 ? null : valueAt(index);
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        if (hashMap != null) {
+            return hashMap.getOrDefault(key, defaultValue);
+        }
+        final int index = indexOf(key);
+        return index < 0 ? defaultValue : valueAt(index);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return hashMap != null ? hashMap.containsKey(key) : indexOf(key) >= 0;
+    }
+
+    @Override
+    public V put(K key, V value) {
+
+        if (hashMap != null) {
+            return hashMap.put(key, value);
+        }
+
+        final int comparison = size == 0 ? 1 : compare(key, keys[size - 1]);
+        if (comparison > 0) {
+            append(key, value);
+            return null;
+        }
+
+        final int index = comparison == 0 ? size - 1 : indexOf(key);
+        if (index >= 0) {
+            final V oldValue = valueAt(index);
+            values[index] = value;
+            return oldValue;
+        }
+
+        return toHashMap().put(key, value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return hashMap != null || containsKey(key) ? toHashMap().remove(key) : null;
+    }
+
+    @Override
+    public void clear() {
+        hashMap = null;
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+        lastIndex = 0;
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        if (hashMap != null) {
+            hashMap.replaceAll(function);
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            values[i] = function.apply(keyAt(i), valueAt(i));
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (hashMap != null) {
+            return hashMap.entrySet();
+        }
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return hashMap != null ? hashMap.entrySet().iterator() : new Iterator<>() {
+
+                        private int index;
+
+                        @Override
+                        public boolean hasNext() {
+                            return index < size;
+                        }
+
+                        @Override
+                        public Entry<K, V> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            return new SlotEntry(index++);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return SortedArrayMap.this.size();
+                }
+
+                @Override
+                public void clear() {
+                    SortedArrayMap.this.clear();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private int indexOf(Object key) {
+
+        final int hint = lastIndex;
+        if (hint < size && compare(key, keys[hint]) == 0) {
+            return hint;
+        }
+        if (hint + 1 < size && compare(key, keys[hint + 1]) == 0) {
+            lastIndex = hint + 1;
+            return hint + 1;
+        }
+
+        final int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index >= 0) {
+            lastIndex = index;
+        }
+        return index;
+    }
+
+    private void append(K key, V value) {
+        if (size == keys.length) {
+            final int newCapacity = size + (size >> 1) + 1;
+            keys = Arrays.copyOf(keys, newCapacity);
+            values = Arrays.copyOf(values, newCapacity);
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+    }
+
+    private Map<K, V> toHashMap() {
+        final Map<K, V> map = newHashMap(size + 1);
+        for (int i = 0; i < size; i++) {
+            map.put(keyAt(i), valueAt(i));
+        }
+        keys = values = new Object[0];
+        size = 0;
+        return hashMap = map;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K keyAt(int index) {
+        return (K) keys[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int index) {
+        return (V) values[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Object key1, Object key2) {
+        return ((Comparable<Object>) key1).compareTo(key2);
+    }
+
+    private class SlotEntry implements Entry<K, V> {
+
+        private final int index;
+
+        SlotEntry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public K getKey() {
+            return keyAt(index);
+        }
+
+        @Override
+        public V getValue() {
+            return valueAt(index);
+        }
+
+        @Override
+        public V setValue(V value) {
+            final V oldValue = getValue();
+            values[index] = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Entry<?, ?> e && Objects.equals(getKey(), e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
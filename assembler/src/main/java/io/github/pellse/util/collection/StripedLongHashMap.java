@@ -0,0 +1,186 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.pellse.util.collection;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static java.util.Collections.unmodifiableSet;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Thread safe {@link Map} keyed by primitive {@code long} values, mappings are spread across independently locked
+ * {@link LongHashMap} stripes so that concurrent readers and writers only contend when they hit the same stripe.
+ * Individual operations are atomic, {@link #entrySet()} and the iterators of the other views are snapshots taken
+ * one stripe at a time, {@code null} keys are not supported.
+ */
+public class StripedLongHashMap<V> extends AbstractMap<Long, V> {
+
+    private final LongHashMap<V>[] stripes;
+    private final int shift;
+
+    public StripedLongHashMap() {
+        this(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    @SuppressWarnings("unchecked")
+    public StripedLongHashMap(int concurrencyLevel) {
+        if (concurrencyLevel < 1) {
+            throw new IllegalArgumentException("concurrencyLevel must be greater than 0, was " + concurrencyLevel);
+        }
+
+        final int stripeCount = Math.max(Integer.highestOneBit(concurrencyLevel - 1) << 1, 1);
+
+        stripes = new LongHashMap[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new LongHashMap<>();
+        }
+        shift = 64 - Integer.numberOfTrailingZeros(stripeCount);
+    }
+
+    public V get(long key) {
+        final var stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.get(key);
+        }
+    }
+
+    public boolean containsKey(long key) {
+        final var stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.containsKey(key);
+        }
+    }
+
+    public V put(long key, V value) {
+        final var stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.put(key, value);
+        }
+    }
+
+    public V remove(long key) {
+        final var stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.remove(key);
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (var stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Long longKey ? get(longKey.longValue()) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Long longKey && containsKey(longKey.longValue());
+    }
+
+    @Override
+    public V put(Long key, V value) {
+        return put(requireNonNull(key, "key cannot be null").longValue(), value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Long longKey ? remove(longKey.longValue()) : null;
+    }
+
+    @Override
+    public void putAll(Map<? extends Long, ? extends V> map) {
+        map.forEach(this::put);
+    }
+
+    @Override
+    public void clear() {
+        for (var stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    @Override
+    public Set<Long> keySet() {
+        return new AbstractSet<>() {
+
+            @Override
+            public Iterator<Long> iterator() {
+                return snapshot(LongHashMap::keySet).iterator();
+            }
+
+            @Override
+            public int size() {
+                return StripedLongHashMap.this.size();
+            }
+
+            @Override
+            public boolean contains(Object key) {
+                return containsKey(key);
+            }
+
+            @Override
+            public boolean remove(Object key) {
+                return key instanceof Long longKey && StripedLongHashMap.this.remove(longKey.longValue()) != null;
+            }
+
+            @Override
+            public boolean removeAll(Collection<?> keys) {
+                boolean modified = false;
+                for (var key : keys) {
+                    modified |= remove(key);
+                }
+                return modified;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<Long, V>> entrySet() {
+        return snapshot(stripe -> {
+            final var entries = new LinkedHashSet<Entry<Long, V>>();
+            stripe.forEach((key, value) -> entries.add(new SimpleImmutableEntry<>(key, value)));
+            return entries;
+        });
+    }
+
+    private <E> Set<E> snapshot(Function<LongHashMap<V>, Set<E>> extractor) {
+        final var snapshot = new LinkedHashSet<E>();
+        for (var stripe : stripes) {
+            synchronized (stripe) {
+                snapshot.addAll(extractor.apply(stripe));
+            }
+        }
+        return unmodifiableSet(snapshot);
+    }
+
+    private LongHashMap<V> stripeFor(long key) {
+        return stripes[shift == 64 ? 0 : (int) ((key * 0x9E3779B97F4A7C15L) >>> shift)];
+    }
+}
@@ -16,6 +16,8 @@
 
 package io.github.pellse.util.reactive;
 
+import org.reactivestreams.Publisher;
+import reactor.core.Scannable;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Sinks;
 import reactor.util.function.Tuple2;
@@ -32,6 +34,20 @@ import static reactor.core.publisher.Mono.*;
 
 public interface ReactiveUtils {
 
+    String INLINE_TAG = ReactiveUtils.class.getName() + ".inline";
+
+    /**
+     * Tags {@code mono} as completing on the subscribing thread without blocking, see {@link #isInline(Publisher)}
+     */
+    static <T> Mono<T> inline(Mono<T> mono) {
+        return mono.tag(INLINE_TAG, "true");
+    }
+
+    static boolean isInline(Publisher<?> publisher) {
+        return Scannable.from(publisher).tags()
+                .anyMatch(tag -> INLINE_TAG.equals(tag.getT1()));
+    }
+
     static <T, RRC> Mono<Map<T, RRC>> resolve(Map<T, Mono<RRC>> monoMap) {
 
         final var monoLinkedMap = toLinkedHashMap(monoMap);
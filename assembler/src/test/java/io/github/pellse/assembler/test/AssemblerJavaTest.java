@@ -17,28 +17,69 @@
 package io.github.pellse.assembler.test;
 
 import io.github.pellse.assembler.Assembler;
+import io.github.pellse.assembler.AssemblerBuilder.Builder;
+import io.github.pellse.assembler.AssemblerBuilder.WithRulesBuilder;
+import io.github.pellse.assembler.AsyncAssembler;
+import io.github.pellse.assembler.DegradedRules;
+import io.github.pellse.assembler.InMemoryAssemblerMetrics;
+import io.github.pellse.assembler.LongRange;
+import io.github.pellse.assembler.SyncAssembler;
 import io.github.pellse.assembler.util.*;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
+import java.nio.file.Files;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import static io.github.pellse.assembler.AssemblerBuilder.assemblerOf;
+import static io.github.pellse.assembler.BatchingAssembler.batchingAssembler;
+import static io.github.pellse.assembler.DegradedRules.degradedRules;
+import static io.github.pellse.assembler.DegradedRules.trackDegradedRules;
 import static io.github.pellse.assembler.FluxAdapter.fluxAdapter;
+import static io.github.pellse.assembler.FluxAdapter.streamingFluxAdapter;
+import static io.github.pellse.assembler.FluxAdapter.unorderedStreamingFluxAdapter;
+import static io.github.pellse.assembler.LongRange.toLongRanges;
 import static io.github.pellse.assembler.QueryUtils.toPublisher;
-import static io.github.pellse.assembler.Rule.rule;
+import static io.github.pellse.assembler.Rule.*;
 import static io.github.pellse.assembler.RuleMapper.oneToMany;
+import static io.github.pellse.assembler.RuleMapper.oneToManySorted;
 import static io.github.pellse.assembler.RuleMapper.oneToOne;
-import static io.github.pellse.assembler.RuleMapperSource.toRuleMapperSource;
+import static io.github.pellse.assembler.RuleMapper.oneToOneSorted;
+import static io.github.pellse.assembler.RuleMapperSource.*;
+import static io.github.pellse.assembler.ThreadPerTaskAdapter.virtualThreadAdapter;
+import static io.github.pellse.assembler.caching.CacheFactory.cached;
+import static io.github.pellse.assembler.caching.CacheFactory.longCache;
 import static io.github.pellse.assembler.test.AssemblerTestUtils.*;
+import static io.github.pellse.util.ObjectUtils.also;
 import static io.github.pellse.util.collection.CollectionUtils.transform;
+import static java.lang.Thread.currentThread;
+import static java.time.Duration.ofMillis;
+import static java.time.Duration.ofSeconds;
 import static java.util.Collections.emptyList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toSet;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static reactor.core.scheduler.Schedulers.immediate;
 
 public class AssemblerJavaTest {
@@ -126,6 +167,48 @@ public class AssemblerJavaTest {
                 .verify();
     }
 
+    @Test
+    public void testAssemblerBuilderWithCustomWithRulesBuilder() {
+
+        final WithRulesBuilder<Customer, Long, Transaction> withRulesBuilder = (rules, aggregationFunction) ->
+                assemblerOf(Transaction.class)
+                        .withCorrelationIdResolver(Customer::customerId)
+                        .withRules(rules, (customer, subEntities) -> aggregationFunction.apply(customer, subEntities));
+
+        StepVerifier.create(withRulesBuilder
+                        .withRules(
+                                rule(BillingInfo::customerId, oneToOne(this::getBillingInfo, BillingInfo::new)),
+                                rule(OrderItem::customerId, oneToMany(OrderItem::id, this::getAllOrders)),
+                                Transaction::new)
+                        .build()
+                        .assemble(getCustomers()))
+                .expectSubscription()
+                .expectNext(transaction1, transaction2, transaction3, transaction1, transaction2, transaction3)
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testAssemblerBuilderWithRuleList() {
+
+        StepVerifier.create(
+                        assemblerOf(Transaction.class)
+                                .withCorrelationIdResolver(Customer::customerId)
+                                .withRules(
+                                        List.of(
+                                                rule(BillingInfo::customerId, oneToOne(this::getBillingInfo, BillingInfo::new)),
+                                                rule(OrderItem::customerId, oneToMany(OrderItem::id, this::getAllOrders))),
+                                        (customer, subEntities) -> new Transaction(customer, (BillingInfo) subEntities[0], (List<OrderItem>) subEntities[1]))
+                                .build()
+                                .assemble(getCustomers())
+                )
+                .expectSubscription()
+                .expectNext(transaction1, transaction2, transaction3, transaction1, transaction2, transaction3)
+                .expectComplete()
+                .verify();
+    }
+
     @Test
     public void testAssemblerBuilderWithFluxWithError() {
 
@@ -260,4 +343,815 @@ public class AssemblerJavaTest {
         assertEquals(2, billingInvocationCount.get());
         assertEquals(2, ordersInvocationCount.get());
     }
+
+    @Test
+    public void testReusableAssemblerBuilderWithStreamingFluxAdapter() {
+
+        Assembler<Customer, Transaction> assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withRules(
+                        rule(BillingInfo::customerId, oneToOne(this::getBillingInfo, BillingInfo::new)),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, this::getAllOrders)),
+                        Transaction::new)
+                .build(streamingFluxAdapter(3, ofSeconds(5), 2));
+
+        StepVerifier.create(assembler.assemble(getCustomers()))
+                .expectSubscription()
+                .expectNext(transaction1, transaction2, transaction3, transaction1, transaction2, transaction3)
+                .expectComplete()
+                .verify();
+
+        assertEquals(2, billingInvocationCount.get());
+        assertEquals(2, ordersInvocationCount.get());
+    }
+
+    @Test
+    public void testReusableAssemblerBuilderWithStreamingFluxAdapterAndInfiniteStream() {
+
+        Assembler<Customer, Transaction> assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withRules(
+                        rule(BillingInfo::customerId, oneToOne(this::getBillingInfo, BillingInfo::new)),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, this::getAllOrders)),
+                        Transaction::new)
+                .build(streamingFluxAdapter(3));
+
+        StepVerifier.create(assembler.assemble(getCustomers().repeat()).take(9))
+                .expectSubscription()
+                .expectNext(transaction1, transaction2, transaction3, transaction1, transaction2, transaction3, transaction1, transaction2, transaction3)
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void testReusableAssemblerBuilderWithUnorderedStreamingFluxAdapter() {
+
+        Assembler<Customer, Transaction> assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withRules(
+                        rule(BillingInfo::customerId, oneToOne(this::getBillingInfo, BillingInfo::new)),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, (List<Customer> customers) -> getAllOrders(customers)
+                                .delaySubscription(customers.contains(customer1) ? ofMillis(200) : Duration.ZERO))),
+                        Transaction::new)
+                .build(unorderedStreamingFluxAdapter(1, null, 3));
+
+        StepVerifier.create(assembler.assemble(Flux.just(customer1, customer2, customer3)))
+                .expectSubscription()
+                .expectNextMatches(transaction -> !transaction.equals(transaction1))
+                .expectNextMatches(transaction -> !transaction.equals(transaction1))
+                .expectNext(transaction1)
+                .expectComplete()
+                .verify();
+
+        assertEquals(3, billingInvocationCount.get());
+        assertEquals(3, ordersInvocationCount.get());
+    }
+
+    @Test
+    public void testReusableAssemblerBuilderWithInlineSources() {
+
+        final var queryThreads = new CopyOnWriteArrayList<Thread>();
+
+        Assembler<Customer, Transaction> assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withRules(
+                        rule(BillingInfo::customerId, oneToOne(inline((List<Customer> customers) -> getBillingInfo(also(customers, __ -> queryThreads.add(currentThread())))), BillingInfo::new)),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, inline((List<Customer> customers) -> getAllOrders(also(customers, __ -> queryThreads.add(currentThread())))))),
+                        Transaction::new)
+                .build();
+
+        final var testThread = currentThread();
+
+        StepVerifier.create(assembler.assemble(getCustomers()))
+                .expectSubscription()
+                .expectNextMatches(transaction -> transaction.equals(transaction1) && currentThread() == testThread)
+                .expectNext(transaction2, transaction3, transaction1, transaction2, transaction3)
+                .expectComplete()
+                .verify();
+
+        assertEquals(List.of(testThread, testThread), queryThreads);
+    }
+
+    @Test
+    public void testReusableAssemblerBuilderWithParallelAggregation() {
+
+        final var customers = Stream.iterate(0, i -> i + 1).limit(3000).map(i -> List.of(customer1, customer2, customer3).get(i % 3)).toList();
+        final var transactions = transform(customers, customer -> List.of(transaction1, transaction2, transaction3).get((int) (customer.customerId() - 1)));
+
+        Assembler<Customer, Transaction> assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withDeduplication()
+                .withParallelAggregation(100)
+                .withRules(
+                        rule(BillingInfo::customerId, oneToOne(this::getBillingInfo, BillingInfo::new)),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, this::getAllOrders)),
+                        Transaction::new)
+                .build();
+
+        StepVerifier.create(assembler.assemble(Flux.fromIterable(customers)))
+                .expectSubscription()
+                .expectNextSequence(transactions)
+                .expectComplete()
+                .verify();
+
+        StepVerifier.create(assembler.assemble(getCustomers()))
+                .expectSubscription()
+                .expectNext(transaction1, transaction2, transaction3, transaction1, transaction2, transaction3)
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void testReusableAssemblerBuilderWithSortedRules() {
+
+        Assembler<Customer, Transaction> assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withRules(
+                        rule(BillingInfo::customerId, oneToOneSorted(this::getBillingInfo, BillingInfo::new)),
+                        rule(OrderItem::customerId, oneToManySorted(OrderItem::id, this::getAllOrders)),
+                        Transaction::new)
+                .build();
+
+        StepVerifier.create(assembler.assemble(Flux.just(customer1, customer2, customer3)))
+                .expectSubscription()
+                .expectNext(transaction1, transaction2, transaction3)
+                .expectComplete()
+                .verify();
+
+        StepVerifier.create(assembler.assemble(Flux.just(customer3, customer1, customer2, customer3)))
+                .expectSubscription()
+                .expectNext(transaction3, transaction1, transaction2, transaction3)
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void testReusableAssemblerBuilderWithNormalizedIds() {
+
+        final var normalizedIds = new CopyOnWriteArrayList<List<Long>>();
+        final var sortedIds = new CopyOnWriteArrayList<List<Long>>();
+        final var idRanges = new CopyOnWriteArrayList<List<LongRange>>();
+
+        final Function<Customer, Long> customerIdResolver = Customer::customerId;
+
+        final Function<List<Long>, Publisher<BillingInfo>> billingInfoQuery = customerIds ->
+                AssemblerTestUtils.getBillingInfo(also(customerIds, normalizedIds::add));
+
+        final Function<List<Long>, Publisher<OrderItem>> orderItemQuery = customerIds ->
+                AssemblerTestUtils.getAllOrders(also(customerIds, sortedIds::add));
+
+        final Function<List<LongRange>, Publisher<OrderItem>> orderItemRangeQuery = ranges -> {
+            idRanges.add(ranges);
+            return Flux.just(orderItem11, orderItem12, orderItem13, orderItem21, orderItem22)
+                    .filter(orderItem -> ranges.stream().anyMatch(range -> range.contains(orderItem.customerId())));
+        };
+
+        var assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(customerIdResolver)
+                .withRules(
+                        rule(BillingInfo::customerId, oneToOne(callNormalized(customerIdResolver, billingInfoQuery), BillingInfo::new)),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, callSorted(customerIdResolver, orderItemQuery))),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, callRanges(customerIdResolver, orderItemRangeQuery))),
+                        (customer, billingInfo, orderItems, sameOrderItems) -> new Transaction(customer, billingInfo, sameOrderItems))
+                .build();
+
+        StepVerifier.create(assembler.assemble(Flux.just(customer3, customer1, customer2, customer3)))
+                .expectSubscription()
+                .expectNext(transaction3, transaction1, transaction2, transaction3)
+                .expectComplete()
+                .verify();
+
+        assertEquals(List.of(List.of(3L, 1L, 2L)), normalizedIds);
+        assertEquals(List.of(List.of(1L, 2L, 3L)), sortedIds);
+        assertEquals(List.of(List.of(new LongRange(1, 3))), idRanges);
+        assertEquals(List.of(new LongRange(1, 2), new LongRange(5, 5), new LongRange(7, 9)), toLongRanges(List.of(1L, 2L, 2L, 5L, 7L, 8L, 9L)));
+    }
+
+    @Test
+    public void testReusableAssemblerBuilderWithConditionalRules() {
+
+        final var queriedCustomers = new CopyOnWriteArrayList<List<Customer>>();
+
+        final Function<List<Customer>, Publisher<OrderItem>> orderItemQuery = customers -> {
+            queriedCustomers.add(customers);
+            return getAllOrders(customers);
+        };
+
+        Assembler<Customer, Transaction> assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withRules(
+                        rule(BillingInfo::customerId, oneToOne(this::getBillingInfo, BillingInfo::new)),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, pipe(toRuleMapperSource(orderItemQuery), when((Customer customer) -> customer.customerId() != 3L)))),
+                        Transaction::new)
+                .build();
+
+        StepVerifier.create(assembler.assemble(getCustomers()))
+                .expectSubscription()
+                .expectNext(transaction1, transaction2, new Transaction(customer3, billingInfo3, emptyList()))
+                .expectNextCount(3)
+                .expectComplete()
+                .verify();
+
+        assertEquals(List.of(List.of(customer1, customer2, customer1, customer2)), queriedCustomers);
+
+        StepVerifier.create(assembler.assemble(Flux.just(customer3, customer3)))
+                .expectSubscription()
+                .expectNext(new Transaction(customer3, billingInfo3, emptyList()), new Transaction(customer3, billingInfo3, emptyList()))
+                .expectComplete()
+                .verify();
+
+        assertEquals(1, queriedCustomers.size());
+    }
+
+    @Test
+    public void testReusableAssemblerBuilderWithSharedEntityBatch() {
+
+        final var queriedCustomers = new CopyOnWriteArrayList<List<Customer>>();
+        final var queriedCustomerIds = new CopyOnWriteArrayList<List<Long>>();
+
+        final Function<Customer, Long> customerIdResolver = Customer::customerId;
+
+        final Function<List<Long>, Publisher<BillingInfo>> billingInfoQuery = customerIds -> {
+            queriedCustomerIds.add(customerIds);
+            return AssemblerTestUtils.getBillingInfo(customerIds);
+        };
+
+        final Function<List<Long>, Publisher<OrderItem>> orderItemIdsQuery = customerIds -> {
+            queriedCustomerIds.add(customerIds);
+            return AssemblerTestUtils.getAllOrders(customerIds);
+        };
+
+        final Function<List<Customer>, Publisher<OrderItem>> orderItemQuery = customers -> {
+            queriedCustomers.add(customers);
+            return getAllOrders(customers);
+        };
+
+        var assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(customerIdResolver)
+                .withRules(
+                        rule(BillingInfo::customerId, oneToOne(call(customerIdResolver, billingInfoQuery), BillingInfo::new)),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, call(customerIdResolver, orderItemIdsQuery))),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, orderItemQuery)),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, orderItemQuery)),
+                        (customer, billingInfo, orderItems, sameOrderItems, sameOrderItemsAgain) -> new Transaction(customer, billingInfo, orderItems))
+                .build();
+
+        StepVerifier.create(assembler.assemble(getCustomers()))
+                .expectSubscription()
+                .expectNext(transaction1, transaction2, transaction3, transaction1, transaction2, transaction3)
+                .expectComplete()
+                .verify();
+
+        assertEquals(2, queriedCustomerIds.size());
+        assertSame(queriedCustomerIds.get(0), queriedCustomerIds.get(1));
+
+        assertEquals(2, queriedCustomers.size());
+        assertSame(queriedCustomers.get(0), queriedCustomers.get(1));
+        assertThrows(UnsupportedOperationException.class, () -> queriedCustomers.getFirst().add(customer1));
+    }
+
+    @Test
+    public void testReusableAssemblerBuilderWithMetrics() {
+
+        final var metrics = new InMemoryAssemblerMetrics();
+
+        Assembler<Customer, Transaction> assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withMetrics(metrics)
+                .withRules(
+                        named("billingInfo", rule(BillingInfo::customerId, oneToOne(cached(this::getBillingInfo), BillingInfo::new))),
+                        named("orderItems", rule(OrderItem::customerId, oneToMany(OrderItem::id, this::getAllOrders))),
+                        Transaction::new)
+                .build();
+
+        StepVerifier.create(assembler.assemble(getCustomers()).thenMany(assembler.assemble(getCustomers())))
+                .expectSubscription()
+                .expectNextCount(6)
+                .expectComplete()
+                .verify();
+
+        assertEquals(2, metrics.batchSizes().count());
+        assertEquals(6, metrics.batchSizes().max());
+
+        final var billingInfoMetrics = metrics.ruleMetrics("billingInfo");
+        assertEquals(2, billingInfoMetrics.queryLatencies().count());
+        assertEquals(12, billingInfoMetrics.requestedIds());
+        assertEquals(6, billingInfoMetrics.returnedIds()); // Default values are cached too
+        assertEquals(0, billingInfoMetrics.defaultValues());
+        assertEquals(9, billingInfoMetrics.cacheHits()); // Duplicate ids of the first batch count as hits, like in CacheComputeAll events
+        assertEquals(3, billingInfoMetrics.cacheMisses());
+        assertEquals(0, billingInfoMetrics.cacheInFlight());
+
+        final var orderItemsMetrics = metrics.ruleMetrics("orderItems");
+        assertEquals(2, orderItemsMetrics.queryLatencies().count());
+        assertEquals(4, orderItemsMetrics.returnedIds());
+        assertEquals(2, orderItemsMetrics.defaultValues());
+        assertEquals(0, orderItemsMetrics.cacheHits() + orderItemsMetrics.cacheMisses());
+    }
+
+    @Test
+    public void testReusableAssemblerBuilderWithFlightRecorderEvents() throws Exception {
+
+        Assembler<Customer, Transaction> assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withRules(
+                        named("billingInfo", rule(BillingInfo::customerId, oneToOne(cached(this::getBillingInfo), BillingInfo::new))),
+                        named("orderItems", rule(OrderItem::customerId, oneToMany(OrderItem::id, this::getAllOrders))),
+                        Transaction::new)
+                .build();
+
+        final var recordingFile = Files.createTempFile("assembler", ".jfr");
+
+        try (var recording = new Recording()) {
+            recording.enable("io.github.pellse.assembler.AssemblyBatch");
+            recording.enable("io.github.pellse.assembler.RuleQuery");
+            recording.enable("io.github.pellse.assembler.CacheComputeAll");
+            recording.start();
+
+            StepVerifier.create(assembler.assemble(getCustomers()))
+                    .expectSubscription()
+                    .expectNextCount(6)
+                    .expectComplete()
+                    .verify();
+
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        final var events = RecordingFile.readAllEvents(recordingFile);
+        Files.delete(recordingFile);
+
+        final var batchEvent = events.stream().filter(event -> event.getEventType().getName().equals("io.github.pellse.assembler.AssemblyBatch")).findFirst().orElseThrow();
+        assertEquals(6, batchEvent.getInt("batchSize"));
+        assertEquals(2, batchEvent.getInt("ruleCount"));
+
+        final var ruleQueryEvents = events.stream().filter(event -> event.getEventType().getName().equals("io.github.pellse.assembler.RuleQuery")).toList();
+        assertEquals(Set.of("billingInfo", "orderItems"), ruleQueryEvents.stream().map(event -> event.getString("ruleName")).collect(toSet()));
+        ruleQueryEvents.forEach(event -> {
+            assertFalse(event.getStartTime().isBefore(batchEvent.getStartTime()));
+            assertFalse(event.getEndTime().isAfter(batchEvent.getEndTime()));
+        });
+
+        final var cacheEvent = events.stream().filter(event -> event.getEventType().getName().equals("io.github.pellse.assembler.CacheComputeAll")).findFirst().orElseThrow();
+        assertEquals(3, cacheEvent.getInt("missCount"));
+        assertEquals(3, cacheEvent.getInt("hitCount")); // Duplicate ids of the batch are served by the entries created for the first ones
+    }
+
+    @Test
+    public void testFlightRecorderBatchEventWithFaultyQueryFunction() throws Exception {
+
+        Assembler<Customer, Transaction> assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withRules(
+                        rule(BillingInfo::customerId, oneToOne(AssemblerTestUtils::errorBillingInfos, BillingInfo::new)),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, this::getAllOrders)),
+                        Transaction::new)
+                .build();
+
+        final var recordingFile = Files.createTempFile("assembler", ".jfr");
+
+        try (var recording = new Recording()) {
+            recording.enable("io.github.pellse.assembler.AssemblyBatch");
+            recording.start();
+
+            StepVerifier.create(assembler.assemble(getCustomers()))
+                    .expectSubscription()
+                    .expectError(SQLException.class)
+                    .verify();
+
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        final var events = RecordingFile.readAllEvents(recordingFile);
+        Files.delete(recordingFile);
+
+        final var batchEvents = events.stream().filter(event -> event.getEventType().getName().equals("io.github.pellse.assembler.AssemblyBatch")).toList();
+        assertEquals(1, batchEvents.size());
+        assertEquals(6, batchEvents.getFirst().getInt("batchSize"));
+    }
+
+    @Test
+    public void testReusableAssemblerBuilderWithLongCorrelationIdResolver() {
+
+        Assembler<Customer, Transaction> assembler = assemblerOf(Transaction.class)
+                .withLongCorrelationIdResolver(Customer::customerId)
+                .withRules(
+                        longRule(BillingInfo::customerId, oneToOne(cached(this::getBillingInfo, longCache()), BillingInfo::new)),
+                        longRule(OrderItem::customerId, oneToMany(OrderItem::id, this::getAllOrders)),
+                        Transaction::new)
+                .build();
+
+        StepVerifier.create(getCustomers()
+                        .window(3)
+                        .flatMapSequential(assembler::assemble))
+                .expectSubscription()
+                .expectNext(transaction1, transaction2, transaction3, transaction1, transaction2, transaction3)
+                .expectComplete()
+                .verify();
+
+        assertEquals(1, billingInvocationCount.get());
+        assertEquals(2, ordersInvocationCount.get());
+    }
+
+    @Test
+    public void testReusableAssemblerBuilderWithBlockingSourcesOnVirtualThreads() {
+
+        Assembler<Customer, Transaction> assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withRules(
+                        rule(BillingInfo::customerId, oneToOne(toPublisher(this::getBillingInfoNonReactive), BillingInfo::new)),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, toPublisher(this::getAllOrdersNonReactive))),
+                        Transaction::new)
+                .build(Thread.ofVirtual().factory());
+
+        StepVerifier.create(getCustomers()
+                        .window(3)
+                        .flatMapSequential(assembler::assemble))
+                .expectSubscription()
+                .expectNext(transaction1, transaction2, transaction3, transaction1, transaction2, transaction3)
+                .expectComplete()
+                .verify();
+
+        assertEquals(2, billingInvocationCount.get());
+        assertEquals(2, ordersInvocationCount.get());
+    }
+
+    @Test
+    public void testAssemblerBuilderWithVirtualThreadAdapterWithError() {
+
+        StepVerifier.create(
+                        assemblerOf(Transaction.class)
+                                .withCorrelationIdResolver(Customer::customerId)
+                                .withRules(
+                                        rule(BillingInfo::customerId, oneToOne(AssemblerTestUtils::errorBillingInfos, BillingInfo::new)),
+                                        rule(OrderItem::customerId, oneToMany(OrderItem::id, this::getAllOrders)),
+                                        Transaction::new)
+                                .build(virtualThreadAdapter())
+                                .assemble(getCustomers())
+                )
+                .expectSubscription()
+                .expectError(SQLException.class)
+                .verify();
+    }
+
+    @Test
+    public void testReusableAssemblerBuilderWithSyncAssembler() {
+
+        SyncAssembler<Customer, Transaction> assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withRules(
+                        rule(BillingInfo::customerId, oneToOne(toPublisher(this::getBillingInfoNonReactive), BillingInfo::new)),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, this::getAllOrders)),
+                        Transaction::new)
+                .buildSync();
+
+        assertEquals(List.of(transaction1, transaction2, transaction3, transaction1, transaction2, transaction3), assembler.assemble(getCustomersNonReactive()));
+
+        assertEquals(1, billingInvocationCount.get());
+        assertEquals(1, ordersInvocationCount.get());
+    }
+
+    @Test
+    public void testReusableAssemblerBuilderWithAsyncAssembler() throws Exception {
+
+        AsyncAssembler<Customer, Transaction> assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withRules(
+                        rule(BillingInfo::customerId, oneToOne(this::getBillingInfo, BillingInfo::new)),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, this::getAllOrders)),
+                        Transaction::new)
+                .buildAsync();
+
+        assertEquals(List.of(transaction1, transaction2, transaction3), assembler.assemble(List.of(customer1, customer2, customer3)).get());
+    }
+
+    @Test
+    public void testAsyncAssemblerWithError() {
+
+        AsyncAssembler<Customer, Transaction> assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withRules(
+                        rule(BillingInfo::customerId, oneToOne(AssemblerTestUtils::errorBillingInfos, BillingInfo::new)),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, this::getAllOrders)),
+                        Transaction::new)
+                .buildAsync();
+
+        final var exception = assertThrows(ExecutionException.class, () -> assembler.assemble(getCustomersNonReactive()).get());
+        assertInstanceOf(SQLException.class, exception.getCause());
+    }
+
+    @Test
+    public void testAsyncAssemblerCancelsPendingQueriesOnError() {
+
+        final var ordersCancelled = new AtomicBoolean();
+        final Function<List<Customer>, Publisher<OrderItem>> pendingOrders = customers -> Flux.<OrderItem>never().doOnCancel(() -> ordersCancelled.set(true));
+
+        AsyncAssembler<Customer, Transaction> assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withRules(
+                        rule(BillingInfo::customerId, oneToOne(AssemblerTestUtils::errorBillingInfos, BillingInfo::new)),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, pendingOrders)),
+                        Transaction::new)
+                .buildAsync();
+
+        final var exception = assertThrows(ExecutionException.class, () -> assembler.assemble(getCustomersNonReactive()).get(5, SECONDS));
+        assertInstanceOf(SQLException.class, exception.getCause());
+        assertTrue(ordersCancelled.get());
+    }
+
+    @Test
+    public void testSyncAssemblerWithCustomBuilder() {
+
+        final Builder<Customer, Long, Transaction> builder = assemblerAdapter -> assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withRules(
+                        rule(BillingInfo::customerId, oneToOne(this::getBillingInfo, BillingInfo::new)),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, this::getAllOrders)),
+                        Transaction::new)
+                .build(assemblerAdapter);
+
+        assertEquals(List.of(transaction1, transaction2, transaction3), builder.buildSync().assemble(List.of(customer1, customer2, customer3)));
+    }
+
+    @Test
+    public void testReusableAssemblerBuilderWithPartitionedSources() {
+
+        Assembler<Customer, Transaction> assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withRules(
+                        rule(BillingInfo::customerId, oneToOne(pipe(toRuleMapperSource(this::getBillingInfo), partitioned(2, 2)), BillingInfo::new)),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, pipe(toRuleMapperSource(this::getAllOrders), partitioned(1)))),
+                        Transaction::new)
+                .build();
+
+        StepVerifier.create(assembler.assemble(getCustomers()))
+                .expectSubscription()
+                .expectNext(transaction1, transaction2, transaction3, transaction1, transaction2, transaction3)
+                .expectComplete()
+                .verify();
+
+        assertEquals(2, billingInvocationCount.get());
+        assertEquals(3, ordersInvocationCount.get());
+
+        assertTrue(isInline(pipe(inline(this::getBillingInfo), partitioned(2))));
+        assertThrows(IllegalArgumentException.class, () -> partitioned(0));
+        assertThrows(IllegalArgumentException.class, () -> partitioned(2, 0));
+    }
+
+    @Test
+    public void testBatchingAssemblerWithConcurrentCalls() {
+
+        Assembler<Customer, Transaction> assembler = batchingAssembler(assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withRules(
+                        rule(BillingInfo::customerId, oneToOne(this::getBillingInfo, BillingInfo::new)),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, this::getAllOrders)),
+                        Transaction::new)
+                .build(), 100, ofMillis(100));
+
+        StepVerifier.create(Flux.zip(
+                        assembler.assemble(Flux.just(customer1, customer2)).collectList(),
+                        assembler.assemble(Flux.just(customer3)).collectList(),
+                        assembler.assemble(Flux.just(customer2, customer1, customer3)).collectList()))
+                .expectSubscription()
+                .expectNextMatches(results -> results.getT1().equals(List.of(transaction1, transaction2))
+                        && results.getT2().equals(List.of(transaction3))
+                        && results.getT3().equals(List.of(transaction2, transaction1, transaction3)))
+                .expectComplete()
+                .verify();
+
+        assertEquals(1, billingInvocationCount.get());
+        assertEquals(1, ordersInvocationCount.get());
+    }
+
+    @Test
+    public void testBatchingAssemblerWithDifferentSelectedRules() {
+
+        Assembler<Customer, Transaction> assembler = batchingAssembler(assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withRules(
+                        named("billing", rule(BillingInfo::customerId, oneToOne(this::getBillingInfo, BillingInfo::new))),
+                        named("orders", rule(OrderItem::customerId, oneToMany(OrderItem::id, this::getAllOrders))),
+                        Transaction::new)
+                .build(), 100, ofMillis(100));
+
+        StepVerifier.create(Flux.zip(
+                        assembler.assemble(Flux.just(customer1, customer2)).collectList(),
+                        assembler.assemble(Flux.just(customer3), Set.of("billing")).collectList()))
+                .expectSubscription()
+                .expectNextMatches(results -> results.getT1().equals(List.of(transaction1, transaction2))
+                        && results.getT2().equals(List.of(new Transaction(customer3, billingInfo3, emptyList()))))
+                .expectComplete()
+                .verify();
+
+        assertEquals(2, billingInvocationCount.get());
+        assertEquals(1, ordersInvocationCount.get());
+    }
+
+    @Test
+    public void testBatchingAssemblerWithMismatchedResultCount() {
+
+        final Assembler<Customer, Customer> assembler = batchingAssembler(
+                customers -> Flux.from(customers).filter(customer -> customer != customer2), 100, ofMillis(10));
+
+        StepVerifier.create(assembler.assemble(Flux.just(customer1, customer2, customer3)))
+                .expectSubscription()
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+
+    @Test
+    public void testBatchingAssemblerFlushesOnMaxBatchSize() {
+
+        Assembler<Customer, Transaction> assembler = batchingAssembler(assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withRules(
+                        rule(BillingInfo::customerId, oneToOne(this::getBillingInfo, BillingInfo::new)),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, this::getAllOrders)),
+                        Transaction::new)
+                .build(), 3, ofSeconds(30));
+
+        StepVerifier.create(assembler.assemble(getCustomers()))
+                .expectSubscription()
+                .expectNext(transaction1, transaction2, transaction3, transaction1, transaction2, transaction3)
+                .expectComplete()
+                .verify(ofSeconds(5));
+    }
+
+    @Test
+    public void testReusableAssemblerBuilderWithRuleDeadline() {
+
+        final var degradedRules = degradedRules();
+
+        Assembler<Customer, Transaction> assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withRules(
+                        named("billing", rule(BillingInfo::customerId, oneToOne(pipe(toRuleMapperSource(this::getBillingInfo), deadline(ofSeconds(5))), BillingInfo::new))),
+                        named("orders", rule(OrderItem::customerId, oneToMany(OrderItem::id, pipe(toRuleMapperSource(customers -> getAllOrders(customers).delayElements(ofSeconds(1))), deadline(ofMillis(100)))))),
+                        Transaction::new)
+                .build();
+
+        StepVerifier.create(assembler.assemble(Flux.just(customer1, customer2, customer3)).contextWrite(trackDegradedRules(degradedRules)))
+                .expectSubscription()
+                .expectNext(
+                        new Transaction(customer1, billingInfo1, emptyList()),
+                        new Transaction(customer2, billingInfo2Unknown, emptyList()),
+                        new Transaction(customer3, billingInfo3, emptyList()))
+                .expectComplete()
+                .verify();
+
+        assertEquals(Set.of("orders"), degradedRules.ruleNames());
+    }
+
+    @Test
+    public void testReusableAssemblerBuilderWithRuleDeadlineAndFallback() {
+
+        final var degradedRules = degradedRules();
+
+        Assembler<Customer, Transaction> assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withRules(
+                        rule(BillingInfo::customerId, oneToOne(pipe(toRuleMapperSource(customers -> getBillingInfo(customers).delayElements(ofSeconds(1))), deadline(ofMillis(100), this::getBillingInfo)), BillingInfo::new)),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, this::getAllOrders)),
+                        Transaction::new)
+                .build();
+
+        StepVerifier.create(assembler.assemble(getCustomers()).contextWrite(trackDegradedRules(degradedRules)))
+                .expectSubscription()
+                .expectNext(transaction1, transaction2, transaction3, transaction1, transaction2, transaction3)
+                .expectComplete()
+                .verify();
+
+        assertTrue(degradedRules.ruleNames().contains(DegradedRules.UNNAMED_RULE));
+    }
+
+    @Test
+    public void testReusableAssemblerBuilderWithOneToManyRuleDeadline() {
+
+        final Function<List<Customer>, Publisher<OrderItem>> partiallyDelayedOrders = customers -> getAllOrders(customers)
+                .concatMap(orderItem -> orderItem.equals(orderItem11) ? Flux.just(orderItem) : Flux.just(orderItem).delayElements(ofSeconds(1)));
+
+        final Function<List<Customer>, Publisher<OrderItem>> delayedOrders = customers -> getAllOrders(customers).delaySubscription(ofSeconds(1));
+
+        Assembler<Customer, Transaction> assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withRules(
+                        rule(BillingInfo::customerId, oneToOne(this::getBillingInfo, BillingInfo::new)),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, pipe(toRuleMapperSource(partiallyDelayedOrders), deadline(ofMillis(100))))),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, pipe(toRuleMapperSource(partiallyDelayedOrders), deadline(ofMillis(100), delayedOrders)))),
+                        (customer, billingInfo, orders, fallbackOrders) -> new Transaction(customer, billingInfo, orders.isEmpty() ? fallbackOrders : orders))
+                .build();
+
+        StepVerifier.create(assembler.assemble(Flux.just(customer1, customer2, customer3)))
+                .expectSubscription()
+                .expectNext(
+                        new Transaction(customer1, billingInfo1, emptyList()),
+                        new Transaction(customer2, billingInfo2Unknown, emptyList()),
+                        new Transaction(customer3, billingInfo3, emptyList()))
+                .expectComplete()
+                .verify(ofSeconds(5));
+    }
+
+    @Test
+    public void testReusableAssemblerBuilderWithHedgedSource() {
+
+        final var queryCount = new AtomicInteger();
+
+        Assembler<Customer, Transaction> assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withRules(
+                        rule(BillingInfo::customerId, oneToOne(pipe(toRuleMapperSource(customers -> getBillingInfo(customers).delaySubscription(ofSeconds(queryCount.getAndIncrement() == 0 ? 10 : 0))), hedged(0.95, ofMillis(100))), BillingInfo::new)),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, this::getAllOrders)),
+                        Transaction::new)
+                .build();
+
+        StepVerifier.create(assembler.assemble(getCustomers()))
+                .expectSubscription()
+                .expectNext(transaction1, transaction2, transaction3, transaction1, transaction2, transaction3)
+                .expectComplete()
+                .verify(ofSeconds(5));
+
+        assertEquals(2, queryCount.get());
+        assertEquals(1, billingInvocationCount.get());
+    }
+
+    @Test
+    public void testReusableAssemblerBuilderWithRuleSelection() {
+
+        Assembler<Customer, Transaction> assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withRules(
+                        named("billing", rule(BillingInfo::customerId, oneToOne(this::getBillingInfo, BillingInfo::new))),
+                        named("orders", rule(OrderItem::customerId, oneToMany(OrderItem::id, this::getAllOrders))),
+                        Transaction::new)
+                .build();
+
+        StepVerifier.create(assembler.assemble(Flux.just(customer1, customer2, customer3), Set.of("billing")))
+                .expectSubscription()
+                .expectNext(
+                        new Transaction(customer1, billingInfo1, emptyList()),
+                        new Transaction(customer2, billingInfo2Unknown, emptyList()),
+                        new Transaction(customer3, billingInfo3, emptyList()))
+                .expectComplete()
+                .verify();
+
+        assertEquals(1, billingInvocationCount.get());
+        assertEquals(0, ordersInvocationCount.get());
+
+        StepVerifier.create(assembler.assemble(Flux.just(customer1, customer2, customer3)))
+                .expectSubscription()
+                .expectNext(transaction1, transaction2, transaction3)
+                .expectComplete()
+                .verify();
+
+        assertEquals(1, ordersInvocationCount.get());
+    }
+
+    @Test
+    public void testReusableAssemblerBuilderWithDeduplication() {
+
+        final var billingQueriedIds = new ArrayList<Long>();
+
+        Assembler<Customer, Transaction> assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withDeduplication()
+                .withRules(
+                        rule(BillingInfo::customerId, oneToOne((List<Customer> customers) -> getBillingInfo(also(customers, c -> billingQueriedIds.addAll(transform(c, Customer::customerId)))), BillingInfo::new)),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, this::getAllOrders)),
+                        Transaction::new)
+                .build();
+
+        StepVerifier.create(assembler.assemble(Flux.just(customer1, customer2, customer1, customer3, customer2, customer1)))
+                .expectSubscription()
+                .expectNext(transaction1, transaction2, transaction1, transaction3, transaction2, transaction1)
+                .expectComplete()
+                .verify();
+
+        assertEquals(List.of(1L, 2L, 3L), billingQueriedIds);
+    }
+
+    @Test
+    public void testDeduplicationWithNullIdsAndResults() {
+
+        final var anonymous1 = new Customer(null, "Anonymous 1");
+        final var anonymous2 = new Customer(null, "Anonymous 2");
+
+        final var withRulesBuilder = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withDeduplication();
+
+        final Function<WithRulesBuilder<Customer, Long, Transaction>, SyncAssembler<Customer, Transaction>> assemblerFactory = builder -> builder
+                .withRules(
+                        rule(BillingInfo::customerId, oneToOne(this::getBillingInfo, BillingInfo::new)),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, this::getAllOrders)),
+                        (customer, billingInfo, orderItems) -> customer.customerId() == null ? null : new Transaction(customer, billingInfo, orderItems))
+                .buildSync();
+
+        final var customers = List.of(anonymous1, customer1, anonymous2, customer1);
+        final var expected = Arrays.asList(null, transaction1, null, transaction1);
+
+        assertEquals(expected, assemblerFactory.apply(withRulesBuilder).assemble(customers));
+        assertEquals(expected, assemblerFactory.apply(withRulesBuilder.withParallelAggregation(1)).assemble(customers));
+    }
 }
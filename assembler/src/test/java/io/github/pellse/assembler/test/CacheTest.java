@@ -17,6 +17,7 @@
 package io.github.pellse.assembler.test;
 
 import io.github.pellse.assembler.Assembler;
+import io.github.pellse.assembler.InMemoryAssemblerMetrics;
 import io.github.pellse.assembler.Rule;
 import io.github.pellse.assembler.caching.CacheContext.OneToManyCacheContext;
 import io.github.pellse.assembler.caching.CacheContext.OneToOneCacheContext;
@@ -29,12 +30,15 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -48,6 +52,7 @@ import java.util.stream.Stream;
 import static io.github.pellse.assembler.AssemblerBuilder.assemblerOf;
 import static io.github.pellse.assembler.LifeCycleEventBroadcaster.lifeCycleEventBroadcaster;
 import static io.github.pellse.assembler.QueryUtils.toPublisher;
+import static io.github.pellse.assembler.Rule.named;
 import static io.github.pellse.assembler.Rule.rule;
 import static io.github.pellse.assembler.RuleMapper.*;
 import static io.github.pellse.assembler.RuleMapperSource.call;
@@ -57,14 +62,17 @@ import static io.github.pellse.assembler.caching.AutoCacheFactoryBuilder.autoCac
 import static io.github.pellse.assembler.caching.CacheEvent.*;
 import static io.github.pellse.assembler.caching.CacheFactory.*;
 import static io.github.pellse.assembler.caching.ConcurrentCacheFactory.concurrent;
+import static io.github.pellse.assembler.caching.NegativeCacheFactory.negativeCache;
 import static io.github.pellse.assembler.test.CDCAdd.cdcAdd;
 import static io.github.pellse.assembler.test.CDCDelete.cdcDelete;
 import static io.github.pellse.assembler.test.AssemblerTestUtils.*;
 import static io.github.pellse.util.ObjectUtils.run;
 import static io.github.pellse.util.collection.CollectionUtils.transform;
 import static java.time.Duration.*;
+import static java.util.Objects.requireNonNullElseGet;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static reactor.core.publisher.Mono.error;
 import static reactor.core.scheduler.Schedulers.*;
 
@@ -321,6 +329,60 @@ public class CacheTest {
         assertEquals(1, ordersInvocationCount.get(), "OrderItem error");
     }
 
+    @Test
+    public void testReusableAssemblerBuilderWithCompactCaching() {
+
+        final var transactions = new CopyOnWriteArrayList<Transaction>();
+
+        var assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withRules(
+                        rule(BillingInfo::customerId, oneToOne(cached(this::getBillingInfo), BillingInfo::new)),
+                        rule(OrderItem::customerId, oneToManyCompact(OrderItem::id, cachedMany(this::getAllOrders))),
+                        Transaction::new)
+                .build();
+
+        StepVerifier.create(getCustomers()
+                        .window(3)
+                        .delayElements(ofMillis(100))
+                        .flatMapSequential(assembler::assemble)
+                        .doOnNext(transactions::add))
+                .expectSubscription()
+                .expectNext(transaction1, transaction2, transaction3, transaction1, transaction2, transaction3, transaction1, transaction2, transaction3)
+                .expectComplete()
+                .verify();
+
+        assertEquals(1, ordersInvocationCount.get(), "OrderItem error");
+        transactions.forEach(transaction -> assertThrows(UnsupportedOperationException.class, () -> transaction.orderItems().add(orderItem11)));
+    }
+
+    @Test
+    public void testReusableAssemblerBuilderWithNegativeCaching() {
+
+        var assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withRules(
+                        rule(BillingInfo::customerId, oneToOne(cached(this::getBillingInfo, negativeCache(ofMinutes(1), 100)))),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, cachedMany(this::getAllOrders))),
+                        (customer, billingInfo, orderItems) -> new Transaction(customer, requireNonNullElseGet(billingInfo, () -> new BillingInfo(customer.customerId())), orderItems))
+                .build();
+
+        StepVerifier.create(getCustomers()
+                        .window(3)
+                        .delayElements(ofMillis(100))
+                        .flatMapSequential(assembler::assemble))
+                .expectSubscription()
+                .expectNext(transaction1, transaction2, transaction3, transaction1, transaction2, transaction3, transaction1, transaction2, transaction3)
+                .expectComplete()
+                .verify();
+
+        assertEquals(1, billingInvocationCount.get(), "BillingInfo error");
+        assertEquals(1, ordersInvocationCount.get(), "OrderItem error");
+
+        assertThrows(IllegalArgumentException.class, () -> negativeCache(ZERO, 100));
+        assertThrows(IllegalArgumentException.class, () -> negativeCache(ofMinutes(1), 0));
+    }
+
     @Test
     public void testReusableAssemblerBuilderWithConcurrentCaching() {
 
@@ -375,6 +437,38 @@ public class CacheTest {
         assertEquals(1, ordersInvocationCount.get(), "OrderItem error");
     }
 
+    @Test
+    public void testReusableAssemblerBuilderWithCustomCacheMetrics() {
+
+        final var metrics = new InMemoryAssemblerMetrics();
+
+        CacheFactory<Long, BillingInfo, BillingInfo, OneToOneCacheContext<Long, BillingInfo>> firstIdOnlyCache = cache(
+                ids -> Mono.just(Map.of()),
+                (ids, fetchFunction) -> fetchFunction.apply(List.of(ids.iterator().next())),
+                map -> Mono.empty(),
+                map -> Mono.empty());
+
+        var assembler = assemblerOf(Transaction.class)
+                .withCorrelationIdResolver(Customer::customerId)
+                .withMetrics(metrics)
+                .withRules(
+                        named("billingInfo", rule(BillingInfo::customerId, oneToOne(cached(this::getBillingInfo, firstIdOnlyCache), BillingInfo::new))),
+                        rule(OrderItem::customerId, oneToMany(OrderItem::id, this::getAllOrders)),
+                        Transaction::new)
+                .build();
+
+        StepVerifier.create(assembler.assemble(Flux.just(customer1, customer2, customer3)))
+                .expectSubscription()
+                .expectNextCount(3)
+                .expectComplete()
+                .verify();
+
+        final var billingInfoMetrics = metrics.ruleMetrics("billingInfo");
+        assertEquals(2, billingInfoMetrics.cacheHits());
+        assertEquals(1, billingInfoMetrics.cacheMisses());
+        assertEquals(0, billingInfoMetrics.cacheInFlight());
+    }
+
     @Test
     public void testReusableAssemblerBuilderWithFaultyQueryFunction() {
 
@@ -24,16 +24,36 @@ import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static io.github.pellse.assembler.AssemblerBuilder.assemblerOf;
+import static io.github.pellse.assembler.Rule.named;
 import static io.github.pellse.assembler.Rule.rule;
 import static io.github.pellse.assembler.RuleMapper.oneToMany;
 import static io.github.pellse.assembler.RuleMapper.oneToOne;
+import static io.github.pellse.assembler.RuleMapperSource.assembled;
 import static io.github.pellse.assembler.RuleMapperSource.call;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class CompositeCorrelationIdResolverTest {
 
+    record AssembledReply(Reply reply, User author) {
+
+        Long id() {
+            return reply.id();
+        }
+
+        Long postId() {
+            return reply.postId();
+        }
+    }
+
+    record AssembledPost(PostDetails post, User author, List<AssembledReply> replies) {
+    }
+
+    private final AtomicInteger usersInvocationCount = new AtomicInteger();
+
     // Creating PostDetails records
     PostDetails postDetails1 = new PostDetails(1L, "user1", "Content of post 1");
     PostDetails postDetails2 = new PostDetails(2L, "user2", "Content of post 2");
@@ -105,6 +125,8 @@ public class CompositeCorrelationIdResolverTest {
     }
 
     private Flux<User> getUsersById(List<String> userIds) {
+        usersInvocationCount.incrementAndGet();
+
         return Flux.just(user1, user2, user3, user4, user5, user6, user7, user8, user9, user10)
                 .filter(u -> userIds.contains(u.Id()));
     }
@@ -132,6 +154,7 @@ public class CompositeCorrelationIdResolverTest {
 
     @BeforeEach
     void setup() {
+        usersInvocationCount.set(0);
     }
 
     /**
@@ -197,4 +220,71 @@ public class CompositeCorrelationIdResolverTest {
                 .expectComplete()
                 .verify();
     }
+
+    @Test
+    public void testWithAssembledReplies() {
+
+        Assembler<Reply, AssembledReply> replyAssembler = assemblerOf(AssembledReply.class)
+                .withCorrelationIdResolver(Reply::userId)
+                .withRules(
+                        rule(User::Id, oneToOne(call(this::getUsersById))),
+                        AssembledReply::new)
+                .build();
+
+        Assembler<PostDetails, AssembledPost> assembler = assemblerOf(AssembledPost.class)
+                .withCorrelationIdResolver(PostDetails::id)
+                .withRules(
+                        rule(User::Id, PostDetails::userId, oneToOne(call(this::getUsersById))),
+                        rule(AssembledReply::postId, oneToMany(AssembledReply::id, assembled(this::getReplies, replyAssembler))),
+                        AssembledPost::new)
+                .build();
+
+        final var usersById = Map.of(
+                user1.Id(), user1, user2.Id(), user2, user3.Id(), user3, user4.Id(), user4, user5.Id(), user5,
+                user6.Id(), user6, user7.Id(), user7, user8.Id(), user8, user9.Id(), user9, user10.Id(), user10);
+
+        final var expectedAssembledPosts = expectedPosts.stream()
+                .map(post -> new AssembledPost(post.post(), post.author(), post.replies().stream()
+                        .map(reply -> new AssembledReply(reply, usersById.get(reply.userId())))
+                        .toList()))
+                .toList();
+
+        StepVerifier.create(assembler.assemble(getPostDetails()))
+                .expectSubscription()
+                .expectNextSequence(expectedAssembledPosts)
+                .expectComplete()
+                .verify();
+
+        assertEquals(2, usersInvocationCount.get());
+    }
+
+    @Test
+    public void testAssembledRuleIgnoresOuterSelectedRules() {
+
+        Assembler<Reply, AssembledReply> replyAssembler = assemblerOf(AssembledReply.class)
+                .withCorrelationIdResolver(Reply::userId)
+                .withRules(
+                        named("author", rule(User::Id, oneToOne(call(this::getUsersById)))),
+                        AssembledReply::new)
+                .build();
+
+        Assembler<PostDetails, AssembledPost> assembler = assemblerOf(AssembledPost.class)
+                .withCorrelationIdResolver(PostDetails::id)
+                .withRules(
+                        named("author", rule(User::Id, PostDetails::userId, oneToOne(call(this::getUsersById)))),
+                        named("replies", rule(AssembledReply::postId, oneToMany(AssembledReply::id, assembled(this::getReplies, replyAssembler)))),
+                        AssembledPost::new)
+                .build();
+
+        StepVerifier.create(assembler.assemble(Flux.just(postDetails1), Set.of("replies")))
+                .expectSubscription()
+                .expectNext(new AssembledPost(postDetails1, null, List.of(
+                        new AssembledReply(reply1_1, user2),
+                        new AssembledReply(reply1_2, user3),
+                        new AssembledReply(reply1_3, user4))))
+                .expectComplete()
+                .verify();
+
+        assertEquals(1, usersInvocationCount.get());
+    }
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.pellse.assembler.test;
+
+import io.github.pellse.util.collection.DefaultValueMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DefaultValueMapTest {
+
+    @Test
+    public void testDefaultValuesOnlyForRequestedKeys() {
+        final var map = new DefaultValueMap<>(Map.of(1L, "1"), Set.of(1L, 2L, 3L), id -> "default" + id);
+
+        assertEquals("1", map.get(1L));
+        assertEquals("default2", map.get(2L));
+        assertEquals("default3", map.get(3L));
+        assertNull(map.get(4L));
+        assertFalse(map.containsKey(4L));
+        assertEquals("fallback", map.getOrDefault(4L, "fallback"));
+        assertTrue(map.containsKey(2L));
+    }
+
+    @Test
+    public void testSizeAndIteration() {
+        final var map = new DefaultValueMap<>(Map.of(1L, "1", 5L, "5"), new LinkedHashSet<>(List.of(1L, 2L, 3L)), id -> "default" + id);
+
+        assertEquals(3, map.size());
+        assertFalse(map.containsKey(5L));
+        assertNull(map.get(5L));
+        assertEquals(List.of(1L, 2L, 3L), List.copyOf(map.keySet()));
+        assertEquals(Map.of(1L, "1", 2L, "default2", 3L, "default3"), map);
+        assertEquals(Map.of(1L, "1", 2L, "default2", 3L, "default3"), new HashMap<>(map));
+    }
+
+    @Test
+    public void testNullDefaultValues() {
+        final var map = new DefaultValueMap<Long, String>(Map.of(1L, "1"), Set.of(1L, 2L), id -> null);
+
+        assertNull(map.get(2L));
+        assertTrue(map.containsKey(2L));
+        assertFalse(map.containsKey(3L));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void testDefaultValuesComputedPerLookup() {
+        final var requestedKeys = new ArrayList<Long>();
+        final var map = new DefaultValueMap<>(Map.of(1L, "1"), Set.of(1L, 2L, 3L), id -> {
+            requestedKeys.add(id);
+            return "default" + id;
+        });
+
+        assertEquals("1", map.get(1L));
+        assertTrue(map.containsKey(3L));
+        assertEquals(3, map.size());
+        assertNull(map.get(4L));
+        assertEquals(List.of(), requestedKeys);
+
+        assertEquals("default2", map.get(2L));
+        assertEquals(List.of(2L), requestedKeys);
+    }
+
+    @Test
+    public void testReadOnly() {
+        final var map = new DefaultValueMap<>(new HashMap<>(Map.of(1L, "1")), Set.of(1L, 2L), id -> "default" + id);
+
+        assertThrows(UnsupportedOperationException.class, () -> map.put(3L, "3"));
+        assertThrows(UnsupportedOperationException.class, () -> map.remove(1L));
+        assertThrows(UnsupportedOperationException.class, () -> map.entrySet().iterator().next().setValue("one"));
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.pellse.assembler.test;
+
+import io.github.pellse.util.collection.LongHashMap;
+import io.github.pellse.util.collection.StripedLongHashMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static java.util.concurrent.CompletableFuture.allOf;
+import static java.util.stream.Collectors.toMap;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongHashMapTest {
+
+    @Test
+    public void testPutAndGet() {
+        final var map = new LongHashMap<String>();
+
+        assertNull(map.put(1L, "1"));
+        assertNull(map.put(-1L, null));
+        assertEquals("1", map.put(1L, "one"));
+
+        assertEquals(2, map.size());
+        assertEquals("one", map.get(1L));
+        assertTrue(map.containsKey(-1L));
+        assertNull(map.get(-1L));
+        assertEquals("default", map.getOrDefault(2L, "default"));
+        assertNull(map.getOrDefault(-1L, "default"));
+        assertNull(map.get("1"));
+        assertThrows(NullPointerException.class, () -> map.put(null, "null"));
+    }
+
+    @Test
+    public void testRemoveThenReinsert() {
+        final var map = new LongHashMap<String>();
+        LongStream.range(0, 10).forEach(i -> map.put(i, "v" + i));
+
+        assertEquals("v3", map.remove(3L));
+        assertNull(map.remove(3L));
+        assertFalse(map.containsKey(3L));
+        assertEquals(9, map.size());
+
+        assertNull(map.put(3L, "w3"));
+        assertEquals("w3", map.get(3L));
+        assertEquals(10, map.size());
+        LongStream.range(0, 10).filter(i -> i != 3).forEach(i -> assertEquals("v" + i, map.get(i)));
+    }
+
+    @Test
+    public void testResize() {
+        final var map = new LongHashMap<Long>(2);
+        final var expected = LongStream.range(0, 10_000).map(i -> i * 31).boxed().collect(toMap(i -> i, i -> -i));
+
+        expected.forEach(map::put);
+
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected, map);
+        assertEquals(expected, new HashMap<>(map));
+    }
+
+    @Test
+    public void testTombstoneReuse() {
+        final var map = new LongHashMap<String>(4);
+        map.put(-1L, "sentinel");
+
+        for (long i = 0; i < 100_000; i++) {
+            map.put(i, "v" + i);
+            assertEquals("v" + i, map.remove(i));
+        }
+
+        assertEquals(Map.of(-1L, "sentinel"), map);
+
+        LongStream.range(0, 100).forEach(i -> map.put(i, "v" + i));
+        LongStream.range(0, 100).forEach(i -> assertEquals("v" + i, map.get(i)));
+        assertEquals(101, map.size());
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        final var map = new LongHashMap<String>();
+        LongStream.range(0, 20).forEach(i -> map.put(i, "v" + i));
+
+        map.keySet().removeIf(key -> key % 2 == 0);
+        map.entrySet().removeIf(entry -> entry.getKey() == 1L);
+
+        assertEquals(9, map.size());
+        assertFalse(map.containsKey(1L));
+        assertFalse(map.containsKey(2L));
+        assertEquals("v3", map.get(3L));
+    }
+
+    @Test
+    public void testStripedLongHashMap() {
+        final var map = new StripedLongHashMap<String>(3);
+
+        map.putAll(Map.of(1L, "1", 2L, "2", 3L, "3"));
+        assertEquals(Map.of(1L, "1", 2L, "2", 3L, "3"), map);
+
+        final var keySet = map.keySet();
+        keySet.removeAll(List.of(1L, 3L, 4L));
+        assertEquals(Map.of(2L, "2"), map);
+        assertEquals(Set.of(2L), keySet);
+        assertEquals("2", map.remove(2L));
+        assertTrue(map.isEmpty());
+
+        assertThrows(IllegalArgumentException.class, () -> new StripedLongHashMap<String>(0));
+    }
+
+    @Test
+    public void testStripedLongHashMapConcurrentWrites() {
+        final var map = new StripedLongHashMap<Long>();
+
+        final var futures = IntStream.range(0, 8)
+                .mapToObj(t -> CompletableFuture.runAsync(() -> LongStream.range(0, 10_000)
+                        .map(i -> i * 8 + t)
+                        .forEach(i -> {
+                            map.put(i, Long.valueOf(i));
+                            if (i % 3 == 0) {
+                                map.remove(i);
+                            }
+                        })))
+                .toArray(CompletableFuture[]::new);
+
+        allOf(futures).join();
+
+        final var expected = LongStream.range(0, 80_000).filter(i -> i % 3 != 0).boxed().collect(toMap(i -> i, i -> i));
+        assertEquals(expected, map);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.pellse.assembler.test;
+
+import io.github.pellse.util.metrics.LongHistogram;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LongHistogramTest {
+
+    @Test
+    public void testEmptyHistogram() {
+        final var histogram = new LongHistogram();
+
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.sum());
+        assertEquals(0, histogram.max());
+        assertEquals(0, histogram.mean());
+        assertEquals(0, histogram.percentile(0.5));
+    }
+
+    @Test
+    public void testCountSumMaxAndMean() {
+        final var histogram = new LongHistogram();
+        LongStream.rangeClosed(1, 100).forEach(histogram::record);
+
+        assertEquals(100, histogram.count());
+        assertEquals(5050, histogram.sum());
+        assertEquals(100, histogram.max());
+        assertEquals(50.5, histogram.mean());
+    }
+
+    @Test
+    public void testPercentilesAreBucketUpperBounds() {
+        final var histogram = new LongHistogram();
+        LongStream.rangeClosed(1, 100).forEach(histogram::record);
+
+        assertEquals(1, histogram.percentile(0));
+        assertEquals(1, histogram.percentile(0.01));
+        assertEquals(63, histogram.percentile(0.5)); // 50th value falls in bucket [32, 63]
+        assertEquals(100, histogram.percentile(0.99)); // Upper bound 127 capped by max
+        assertEquals(100, histogram.percentile(1));
+    }
+
+    @Test
+    public void testZeroNegativeAndLargeValues() {
+        final var histogram = new LongHistogram();
+
+        histogram.record(0);
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(3, histogram.count());
+        assertEquals(Long.MAX_VALUE, histogram.sum());
+        assertEquals(Long.MAX_VALUE, histogram.max());
+        assertEquals(0, histogram.percentile(0.5));
+        assertEquals(Long.MAX_VALUE, histogram.percentile(1));
+    }
+
+    @Test
+    public void testInvalidPercentile() {
+        final var histogram = new LongHistogram();
+
+        assertThrows(IllegalArgumentException.class, () -> histogram.percentile(-0.1));
+        assertThrows(IllegalArgumentException.class, () -> histogram.percentile(1.1));
+    }
+
+    @Test
+    public void testConcurrentRecording() {
+        final var histogram = new LongHistogram();
+
+        IntStream.range(0, 8).parallel().forEach(__ -> LongStream.rangeClosed(1, 10_000).forEach(histogram::record));
+
+        assertEquals(80_000, histogram.count());
+        assertEquals(8 * 50_005_000L, histogram.sum());
+        assertEquals(10_000, histogram.max());
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2024 Sebastien Pelletier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.pellse.assembler.test;
+
+import io.github.pellse.util.collection.SortedArrayMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static java.util.Map.entry;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SortedArrayMapTest {
+
+    @Test
+    public void testAppendInOrder() {
+        final var map = new SortedArrayMap<Long, String>(2);
+        IntStream.range(0, 100).forEach(i -> map.put((long) i, "v" + i));
+
+        assertTrue(map.isSorted());
+        assertEquals(100, map.size());
+        IntStream.range(0, 100).forEach(i -> assertEquals("v" + i, map.get((long) i)));
+        IntStream.iterate(99, i -> i >= 0, i -> i - 7).forEach(i -> assertEquals("v" + i, map.get((long) i)));
+        assertNull(map.get(100L));
+        assertFalse(map.containsKey(-1L));
+        assertEquals("default", map.getOrDefault(100L, "default"));
+    }
+
+    @Test
+    public void testReplaceKeyDuringAppend() {
+        final var map = new SortedArrayMap<Long, String>();
+
+        map.put(1L, "1");
+        map.put(2L, "2");
+        assertEquals("2", map.put(2L, "two"));
+        assertEquals("1", map.put(1L, "one"));
+        map.put(3L, "3");
+
+        assertTrue(map.isSorted());
+        assertEquals(Map.of(1L, "one", 2L, "two", 3L, "3"), map);
+        assertEquals(List.of(1L, 2L, 3L), List.copyOf(map.keySet()));
+    }
+
+    @Test
+    public void testSwitchToHashMapOnOutOfOrderInsert() {
+        final var map = new SortedArrayMap<Long, String>();
+
+        map.put(1L, "1");
+        map.put(3L, "3");
+        final var entrySet = map.entrySet();
+        map.put(2L, "2");
+
+        assertFalse(map.isSorted());
+        assertEquals(Map.of(1L, "1", 2L, "2", 3L, "3"), map);
+
+        map.put(0L, "0");
+        assertEquals("0", map.get(0L));
+        assertEquals(4, map.size());
+        assertEquals(4, entrySet.size());
+        assertEquals(new HashSet<>(List.of(entry(0L, "0"), entry(1L, "1"), entry(2L, "2"), entry(3L, "3"))), new HashSet<>(entrySet));
+        assertEquals(map.entrySet(), entrySet);
+    }
+
+    @Test
+    public void testRemove() {
+        final var map = new SortedArrayMap<Long, String>();
+        map.put(1L, "1");
+        map.put(2L, "2");
+
+        assertNull(map.remove(3L));
+        assertTrue(map.isSorted());
+
+        assertEquals("1", map.remove(1L));
+        assertFalse(map.isSorted());
+        assertEquals(Map.of(2L, "2"), map);
+        assertNull(map.remove(1L));
+
+        map.clear();
+        assertTrue(map.isSorted());
+        map.put(5L, "5");
+        assertEquals(Map.of(5L, "5"), map);
+    }
+
+    @Test
+    public void testEntrySetValueAndReplaceAll() {
+        final var map = new SortedArrayMap<Long, String>();
+        map.put(1L, "1");
+        map.put(2L, "2");
+
+        map.entrySet().iterator().next().setValue("one");
+        map.replaceAll((key, value) -> value + "!");
+
+        assertEquals(Map.of(1L, "one!", 2L, "2!"), map);
+    }
+}